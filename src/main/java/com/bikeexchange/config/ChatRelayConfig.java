@@ -0,0 +1,26 @@
+package com.bikeexchange.config;
+
+import com.bikeexchange.service.service.RedisChatMessageRelay;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Subscribes this instance to chat messages relayed by other instances (app.chat.relay=redis).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.chat.relay", havingValue = "redis")
+public class ChatRelayConfig {
+
+    @Bean
+    public RedisMessageListenerContainer chatRelayListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                    RedisChatMessageRelay relay) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(relay, new ChannelTopic(RedisChatMessageRelay.CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,120 @@
+package com.bikeexchange.config;
+
+import com.bikeexchange.service.service.OperationalMetrics;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PessimisticLockException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries {@link RetryOnDeadlock} methods whose transaction lost a deadlock (MySQL 1213) or
+ * timed out waiting for a row lock (1205). Ordered before the transaction interceptor, so
+ * each attempt runs in a fresh transaction after the failed one has rolled back.
+ *
+ * Attempts back off exponentially with full jitter, so transactions that collided do not
+ * collide again on the same schedule. Retries, recoveries and exhausted attempts are counted
+ * in {@link OperationalMetrics} under {@code tx.deadlock.*}.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class DeadlockRetryAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlockRetryAspect.class);
+
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+
+    @Autowired
+    private OperationalMetrics operationalMetrics;
+
+    @Value("${app.tx.retry.max-attempts:3}")
+    private int defaultMaxAttempts;
+
+    @Value("${app.tx.retry.initial-backoff-ms:20}")
+    private long initialBackoffMs;
+
+    @Value("${app.tx.retry.max-backoff-ms:500}")
+    private long maxBackoffMs;
+
+    @Around("@annotation(com.bikeexchange.config.RetryOnDeadlock) || @within(com.bikeexchange.config.RetryOnDeadlock)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        int maxAttempts = maxAttempts(joinPoint);
+        String operation = joinPoint.getSignature().toShortString();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Object result = joinPoint.proceed();
+                if (attempt > 1) {
+                    operationalMetrics.increment("tx.deadlock.recovered");
+                }
+                return result;
+            } catch (RuntimeException ex) {
+                if (!isLockConflict(ex)) {
+                    throw ex;
+                }
+                if (attempt >= maxAttempts) {
+                    operationalMetrics.increment("tx.deadlock.exhausted");
+                    log.warn("{} aborted by lock conflict after {} attempts", operation, attempt);
+                    throw ex;
+                }
+                operationalMetrics.increment("tx.deadlock.retries");
+                long backoff = backoff(attempt);
+                log.debug("{} aborted by lock conflict, retrying in {} ms (attempt {})", operation, backoff, attempt);
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    private int maxAttempts(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        RetryOnDeadlock annotation = AnnotatedElementUtils.findMergedAnnotation(method, RetryOnDeadlock.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(joinPoint.getTarget().getClass(), RetryOnDeadlock.class);
+        }
+        int configured = annotation != null ? annotation.maxAttempts() : 0;
+        return Math.max(1, configured > 0 ? configured : defaultMaxAttempts);
+    }
+
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 16));
+        return ThreadLocalRandom.current().nextLong(Math.max(1, ceiling) + 1);
+    }
+
+    static boolean isLockConflict(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PessimisticLockingFailureException
+                    || cause instanceof PessimisticLockException
+                    || cause instanceof LockTimeoutException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && ("40001".equals(sql.getSQLState())
+                    || sql.getErrorCode() == MYSQL_DEADLOCK || sql.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT)) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,33 @@
+package com.bikeexchange.config;
+
+import com.bikeexchange.service.service.OrderRuleConfigService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Subscribes to order rule change notifications from other instances.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.order-rule.cache.pubsub-enabled", havingValue = "true", matchIfMissing = true)
+public class OrderRuleCacheConfig {
+
+    @Bean
+    public RedisMessageListenerContainer orderRuleListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                    OrderRuleConfigService orderRuleConfigService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String sender = new String(message.getBody(), StandardCharsets.UTF_8);
+            if (!OrderRuleConfigService.NODE_ID.equals(sender)) {
+                orderRuleConfigService.invalidate();
+            }
+        }, new ChannelTopic(OrderRuleConfigService.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,23 @@
+package com.bikeexchange.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs the annotated method (or every public method of the annotated class) when its
+ * transaction is aborted by a deadlock or a lock wait timeout. See {@link DeadlockRetryAspect}.
+ *
+ * Only the outermost call retries: a method invoked inside a transaction that is already
+ * running fails through to its caller, because the whole transaction has to be re-run.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnDeadlock {
+
+    /**
+     * Total attempts including the first; 0 uses {@code app.tx.retry.max-attempts}.
+     */
+    int maxAttempts() default 0;
+}
@@ -0,0 +1,25 @@
+package com.bikeexchange.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers MySQL full-text matching as an HQL/Criteria function so keyword search can be
+ * combined with the other listing filters in one query:
+ * {@code match_against(b.searchText, '+giant*')} renders
+ * {@code match(search_text) against(? in boolean mode)}.
+ *
+ * Picked up by Hibernate through META-INF/services.
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().registerPattern(
+                "match_against",
+                "match(?1) against(?2 in boolean mode)",
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.DOUBLE));
+    }
+}
@@ -1,6 +1,7 @@
 package com.bikeexchange.config;
 
 import com.bikeexchange.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
@@ -13,14 +14,17 @@ import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.DisabledException;
 import com.bikeexchange.security.CustomUserDetailsService;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
+import com.bikeexchange.security.StompAuthenticationToken;
+import com.bikeexchange.security.StompSessionContext;
+import com.bikeexchange.security.UserPrincipal;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -66,12 +70,18 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                         String bearerToken = authorization.get(0);
                         if (bearerToken.startsWith("Bearer ")) {
                             String jwt = bearerToken.substring(7);
-                            if (jwtTokenProvider.validateToken(jwt)) {
-                                Long userId = jwtTokenProvider.getUserIdFromJWT(jwt);
-                                UserDetails userDetails = customUserDetailsService.loadUserById(userId);
-                                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                                        userDetails, null, userDetails.getAuthorities());
-                                accessor.setUser(auth);
+                            Claims claims = jwtTokenProvider.parseClaims(jwt);
+                            if (claims != null) {
+                                UserPrincipal principal = (UserPrincipal) customUserDetailsService.loadUserByToken(claims);
+                                if (!principal.isEnabled()) {
+                                    throw new DisabledException("Account is not active");
+                                }
+                                accessor.setUser(new StompAuthenticationToken(principal));
+                                // Later frames of this connection are authorised from this context
+                                Map<String, Object> sessionAttributes = accessor.getSessionAttributes();
+                                if (sessionAttributes != null) {
+                                    sessionAttributes.put(StompSessionContext.ATTRIBUTE, new StompSessionContext(principal));
+                                }
                             }
                         }
                     }
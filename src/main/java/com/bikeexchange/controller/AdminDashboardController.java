@@ -1,11 +1,5 @@
 package com.bikeexchange.controller;
 
-import com.bikeexchange.model.Bike;
-import com.bikeexchange.model.Order;
-import com.bikeexchange.model.User;
-import com.bikeexchange.repository.BikeRepository;
-import com.bikeexchange.repository.OrderRepository;
-import com.bikeexchange.repository.UserRepository;
 import com.bikeexchange.service.service.AdminService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -16,7 +10,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -27,9 +20,6 @@ import java.util.Map;
 public class AdminDashboardController extends AdminBaseController {
 
     @Autowired private AdminService adminService;
-    @Autowired private UserRepository userRepository;
-    @Autowired private BikeRepository bikeRepository;
-    @Autowired private OrderRepository orderRepository;
 
     @GetMapping("/dashboard")
     @Operation(summary = "Tổng quan hệ thống")
@@ -40,40 +30,19 @@ public class AdminDashboardController extends AdminBaseController {
     @GetMapping("/statistics/users")
     @Operation(summary = "Thống kê người dùng")
     public ResponseEntity<?> userStatistics() {
-        List<User> users = userRepository.findAll();
-        Map<String, Long> byRole = new HashMap<>();
-        for (User u : users) {
-            String r = u.getRole() != null ? u.getRole().name() : "UNKNOWN";
-            byRole.put(r, byRole.getOrDefault(r, 0L) + 1L);
-        }
-        return ok("User statistics retrieved successfully",
-                Map.of("total", users.size(), "byRole", byRole));
+        return ok("User statistics retrieved successfully", adminService.getUserStatistics());
     }
 
     @GetMapping("/statistics/bikes")
     @Operation(summary = "Thống kê tin đăng")
     public ResponseEntity<?> bikeStatistics() {
-        List<Bike> bikes = bikeRepository.findAll();
-        Map<String, Long> byStatus = new HashMap<>();
-        for (Bike b : bikes) {
-            String s = b.getStatus() != null ? b.getStatus().name() : "UNKNOWN";
-            byStatus.put(s, byStatus.getOrDefault(s, 0L) + 1L);
-        }
-        return ok("Bike statistics retrieved successfully",
-                Map.of("total", bikes.size(), "byStatus", byStatus));
+        return ok("Bike statistics retrieved successfully", adminService.getBikeStatistics());
     }
 
     @GetMapping("/statistics/orders")
     @Operation(summary = "Thống kê giao dịch")
     public ResponseEntity<?> orderStatistics() {
-        List<Order> orders = orderRepository.findAll();
-        Map<String, Long> byStatus = new HashMap<>();
-        for (Order o : orders) {
-            String s = o.getStatus() != null ? o.getStatus().name() : "UNKNOWN";
-            byStatus.put(s, byStatus.getOrDefault(s, 0L) + 1L);
-        }
-        return ok("Order statistics retrieved successfully",
-                Map.of("total", orders.size(), "byStatus", byStatus));
+        return ok("Order statistics retrieved successfully", adminService.getOrderStatistics());
     }
 
     @GetMapping("/statistics/revenue")
@@ -107,6 +76,12 @@ public class AdminDashboardController extends AdminBaseController {
                     "count", adminService.getReportsCount(),
                     "pendingCount", adminService.getPendingReportsCount()));
         }
+        if (type == null || type.isEmpty() || "stats".equalsIgnoreCase(type)) {
+            data.put("statsReconciliation", adminService.getStatsReconciliation());
+        }
+        if (type == null || type.isEmpty() || "operations".equalsIgnoreCase(type)) {
+            data.put("operations", adminService.getOperationalMetrics());
+        }
         return ok("Metrics retrieved successfully", data);
     }
 }
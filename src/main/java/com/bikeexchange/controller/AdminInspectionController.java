@@ -7,6 +7,7 @@ import com.bikeexchange.repository.InspectionRepository;
 import com.bikeexchange.repository.ReportRepository;
 import com.bikeexchange.repository.UserRepository;
 import com.bikeexchange.security.UserPrincipal;
+import com.bikeexchange.security.UserPrincipalCache;
 import com.bikeexchange.service.service.InspectionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -34,6 +35,7 @@ public class AdminInspectionController extends AdminBaseController {
     @Autowired private ReportRepository reportRepository;
     @Autowired private UserRepository userRepository;
     @Autowired private InspectionService inspectionService;
+    @Autowired private UserPrincipalCache userPrincipalCache;
 
     @GetMapping("/inspection-requests")
     @Operation(summary = "Danh sách yêu cầu kiểm định")
@@ -81,7 +83,9 @@ public class AdminInspectionController extends AdminBaseController {
             if (user.getRole() != User.UserRole.INSPECTOR) return badRequest("User is not an inspector");
             user.setStatus("ACTIVE");
             user.setIsVerified(true);
-            return ok("Inspector approved", userRepository.save(user));
+            User saved = userRepository.save(user);
+            userPrincipalCache.evict(id);
+            return ok("Inspector approved", saved);
         }).orElseGet(() -> notFound("Inspector not found"));
     }
 
@@ -95,6 +99,7 @@ public class AdminInspectionController extends AdminBaseController {
             if (user.getRole() != User.UserRole.INSPECTOR) return badRequest("User is not an inspector");
             user.setStatus("SUSPENDED");
             userRepository.save(user);
+            userPrincipalCache.evict(id);
             return ok("Inspector suspended", Map.of("inspectorId", id, "reason", reasonValue));
         }).orElseGet(() -> notFound("Inspector not found"));
     }
@@ -1,5 +1,7 @@
 package com.bikeexchange.controller;
 
+import com.bikeexchange.dto.response.CursorPage;
+import com.bikeexchange.dto.response.GroupAmount;
 import com.bikeexchange.dto.response.OrderResponse;
 import com.bikeexchange.dto.response.PointTransactionDto;
 import com.bikeexchange.dto.request.OrderRuleConfigRequest;
@@ -8,6 +10,7 @@ import com.bikeexchange.model.OrderRuleConfig;
 import com.bikeexchange.model.PointTransaction;
 import com.bikeexchange.repository.OrderRepository;
 import com.bikeexchange.service.service.OrderRuleConfigService;
+import com.bikeexchange.service.service.OrderSearchService;
 import com.bikeexchange.service.service.WalletService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -33,6 +36,7 @@ public class AdminOrderController extends AdminBaseController {
     @Autowired private OrderRepository orderRepository;
     @Autowired private WalletService walletService;
     @Autowired private OrderRuleConfigService orderRuleConfigService;
+    @Autowired private OrderSearchService orderSearchService;
 
     @GetMapping("/order-rules")
     @Operation(summary = "Xem cấu hình business rule của order")
@@ -52,6 +56,8 @@ public class AdminOrderController extends AdminBaseController {
         data.put("returnWindowTotalSeconds", totalSeconds);
         data.put("bikePostFee", config.getBikePostFee());
         data.put("inspectionFee", config.getInspectionFee());
+        data.put("acceptWindowHours", config.getAcceptWindowHours());
+        data.put("shipWindowHours", config.getShipWindowHours());
         return ok("Order rules retrieved successfully", data);
     }
 
@@ -162,22 +168,50 @@ public class AdminOrderController extends AdminBaseController {
         }
     }
 
+    @PutMapping("/order-rules/order-timeouts")
+    @Operation(summary = "Cập nhật thời hạn người bán xác nhận/giao hàng (giờ, 0 = tắt tự động hủy)")
+    public ResponseEntity<?> updateOrderTimeouts(@RequestParam(required = false) Integer acceptWindowHours,
+                                                 @RequestParam(required = false) Integer shipWindowHours) {
+        try {
+            OrderRuleConfig config = orderRuleConfigService.updateOrderTimeouts(acceptWindowHours, shipWindowHours);
+            Map<String, Object> data = new HashMap<>();
+            data.put("acceptWindowHours", config.getAcceptWindowHours());
+            data.put("shipWindowHours", config.getShipWindowHours());
+            return ok("Order timeouts updated successfully", data);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+
     @GetMapping("/orders")
-    @Operation(summary = "Danh sách tất cả giao dịch")
-    public ResponseEntity<?> listOrders(@RequestParam(required = false) String status) {
-        List<Order> orders;
-        if (status == null || status.isBlank()) {
-            orders = orderRepository.findAll();
-        } else {
-            try {
-                Order.OrderStatus target = Order.OrderStatus.valueOf(status.trim().toUpperCase());
-                orders = orderRepository.findAll().stream().filter(o -> o.getStatus() == target).toList();
-            } catch (IllegalArgumentException e) {
-                return badRequest("Invalid order status");
-            }
+    @Operation(summary = "Danh sách tất cả giao dịch",
+            description = "Filters: status (comma-separated), buyer_id, seller_id, from/to (ISO date or date-time), min_amount, max_amount. " +
+                    "sort: newest (default), oldest, amount_desc, amount_asc. Pass next_cursor as cursor for the next page.")
+    public ResponseEntity<?> listOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(name = "buyer_id", required = false) Long buyerId,
+            @RequestParam(name = "seller_id", required = false) Long sellerId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(name = "min_amount", required = false) Long minAmount,
+            @RequestParam(name = "max_amount", required = false) Long maxAmount,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<OrderResponse> page;
+        try {
+            page = orderSearchService.searchOrders(status, buyerId, sellerId, from, to, minAmount, maxAmount,
+                    sort, cursor, size, orderRuleConfigService.getReturnWindowTotalMinutes());
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
         }
-        List<OrderResponse> data = orders.stream().map(OrderResponse::fromEntity).toList();
-        return ok("Orders retrieved successfully", data);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Orders retrieved successfully");
+        response.put("data", page.getItems());
+        response.put("next_cursor", page.getNextCursor());
+        response.put("has_more", page.isHasMore());
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/orders/{id}")
@@ -233,29 +267,40 @@ public class AdminOrderController extends AdminBaseController {
 
     @GetMapping("/fees")
     @Operation(summary = "Danh sách phí hệ thống")
-    public ResponseEntity<?> listSystemFees() {
+    public ResponseEntity<?> listSystemFees(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
         double commissionRate = orderRuleConfigService.getCommissionRate();
         double commissionRatePercent = orderRuleConfigService.ratioToPercent(commissionRate);
-        List<Order> completed = orderRepository.findAll().stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.COMPLETED).toList();
-        long totalCommission = 0L;
+        CursorPage<Order> page;
+        try {
+            page = orderSearchService.findByStatus(Order.OrderStatus.COMPLETED, cursor, size);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
         List<Map<String, Object>> rows = new ArrayList<>();
-        for (Order o : completed) {
+        for (Order o : page.getItems()) {
             long amount = o.getAmountPoints() != null ? o.getAmountPoints() : 0L;
-            long fee = Math.round(amount * commissionRate);
-            totalCommission += fee;
             Map<String, Object> row = new HashMap<>();
             row.put("orderId", o.getId());
             row.put("amountPoints", amount);
             row.put("commissionRate", commissionRatePercent);
-            row.put("commissionFee", fee);
+            row.put("commissionFee", Math.round(amount * commissionRate));
             rows.add(row);
         }
+        // Totals cover every completed order, not just this page
+        long totalCompleted = 0L;
+        long totalCommission = 0L;
+        for (GroupAmount total : orderRepository.aggregateCommissionByStatus(Order.OrderStatus.COMPLETED, commissionRate)) {
+            totalCompleted += total.getTotal();
+            totalCommission += total.getAmount();
+        }
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", "System fees retrieved successfully");
         response.put("data", rows);
-        response.put("summary", Map.of("totalCompletedOrders", rows.size(), "totalCommissionFee", totalCommission));
+        response.put("summary", Map.of("totalCompletedOrders", totalCompleted, "totalCommissionFee", totalCommission));
+        response.put("next_cursor", page.getNextCursor());
+        response.put("has_more", page.isHasMore());
         return ResponseEntity.ok(response);
     }
 
@@ -5,6 +5,7 @@ import com.bikeexchange.model.User;
 import com.bikeexchange.model.UserWallet;
 import com.bikeexchange.repository.UserRepository;
 import com.bikeexchange.repository.UserWalletRepository;
+import com.bikeexchange.security.UserPrincipalCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -29,6 +30,7 @@ public class AdminUserController extends AdminBaseController {
     @Autowired private UserRepository userRepository;
     @Autowired private UserWalletRepository walletRepository;
     @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private UserPrincipalCache userPrincipalCache;
 
     @GetMapping("/users")
     @Operation(summary = "Danh sách người dùng")
@@ -78,7 +80,9 @@ public class AdminUserController extends AdminBaseController {
                     return badRequest("Invalid role");
                 }
             }
-            return ok("User updated successfully", userRepository.save(u));
+            User saved = userRepository.save(u);
+            userPrincipalCache.evict(userId);
+            return ok("User updated successfully", saved);
         }).orElseGet(() -> notFound("User not found"));
     }
 
@@ -92,6 +96,7 @@ public class AdminUserController extends AdminBaseController {
             u.setStatus("LOCKED");
             u.setLockReason(reasonValue);
             userRepository.save(u);
+            userPrincipalCache.evict(userId);
             return ok("User locked", Map.of("userId", userId, "reason", reasonValue));
         }).orElseGet(() -> notFound("User not found"));
     }
@@ -102,7 +107,9 @@ public class AdminUserController extends AdminBaseController {
         return userRepository.findById(userId).<ResponseEntity<?>>map(u -> {
             u.setStatus("ACTIVE");
             u.setLockReason(null);
-            return ok("User unlocked", userRepository.save(u));
+            User saved = userRepository.save(u);
+            userPrincipalCache.evict(userId);
+            return ok("User unlocked", saved);
         }).orElseGet(() -> notFound("User not found"));
     }
 
@@ -12,6 +12,7 @@ import com.bikeexchange.repository.UserWalletRepository;
 import com.bikeexchange.repository.VerificationTokenRepository;
 import com.bikeexchange.security.JwtTokenProvider;
 import com.bikeexchange.security.UserPrincipal;
+import com.bikeexchange.security.UserPrincipalCache;
 import com.bikeexchange.service.service.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -56,6 +57,9 @@ public class AuthController {
         @Autowired
         private JwtTokenProvider tokenProvider;
 
+        @Autowired
+        private UserPrincipalCache userPrincipalCache;
+
         @Autowired
         private EmailService emailService;
  
@@ -217,6 +221,7 @@ public class AuthController {
                 user.setIsVerified(true);
                 user.setStatus("ACTIVE");
                 userRepository.save(user);
+                userPrincipalCache.evict(user.getId());
 
                 tokenRepository.deleteByIdSafe(verificationToken.getId());
 
@@ -284,6 +289,7 @@ public class AuthController {
                 }
                 user.setStatus(status);
                 userRepository.save(user);
+                userPrincipalCache.evict(id);
                 return ResponseEntity.ok(Collections.singletonMap("message", "User status updated to " + status));
         }
 }
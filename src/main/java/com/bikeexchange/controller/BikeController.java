@@ -6,9 +6,7 @@ import com.bikeexchange.security.UserPrincipal;
 import com.bikeexchange.service.service.BikeService;
 import com.bikeexchange.service.BikeUploadService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import com.bikeexchange.dto.response.CursorPage;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -38,7 +36,7 @@ public class BikeController {
     private BikeUploadService bikeUploadService;
 
     @GetMapping
-    @Operation(summary = "Search and Filter Bikes", description = "Retrieve a paginated list of bikes. Filters: keyword, category_id, status (repeat param or comma-separated).")
+    @Operation(summary = "Search and Filter Bikes", description = "Retrieve a page of bikes, newest first (or by seller rating). Filters: keyword, category_id, status (repeat param or comma-separated). Pass next_cursor from the previous response as cursor to get the next page.")
     public ResponseEntity<?> getListings(
              @RequestParam(name = "keyword", required = false) String keyword,
              @RequestParam(name = "category_id", required = false) Long categoryId,
@@ -49,20 +47,22 @@ public class BikeController {
              @RequestParam(name = "min_year", required = false) Integer minYear,
              @RequestParam(name = "frame_size", required = false) String frameSize,
              @RequestParam(name = "seller_id", required = false) Long sellerId,
-             @RequestParam(name = "sort_by_rating", defaultValue = "false") boolean sortByRating) {
-        // Use a large size to return "all" results (e.g., 1000)
-        Pageable pageable = PageRequest.of(0, 1000);
-        Page<Bike> result = bikeService.searchBikesAdvanced(keyword, categoryId, status, priceMin, priceMax,
-                brandId, minYear, frameSize, sellerId, sortByRating, pageable);
-
-        java.util.List<com.bikeexchange.dto.response.BikeResponse> dtoList = result.getContent()
-                .stream()
-                .map(com.bikeexchange.dto.response.BikeResponse::fromEntity)
-                .toList();
+             @RequestParam(name = "sort_by_rating", defaultValue = "false") boolean sortByRating,
+             @RequestParam(name = "cursor", required = false) String cursor,
+             @RequestParam(name = "size", required = false) Integer size,
+             @Parameter(description = "full (default) or summary for lightweight listing cards")
+             @RequestParam(name = "view", required = false) String view) {
+        CursorPage<?> result = "summary".equalsIgnoreCase(view)
+                ? bikeService.searchBikeSummaries(keyword, categoryId, status, priceMin, priceMax, brandId, minYear,
+                        frameSize, sellerId, sortByRating, cursor, size)
+                : bikeService.searchBikesAdvanced(keyword, categoryId, status, priceMin, priceMax, brandId, minYear,
+                        frameSize, sellerId, sortByRating, cursor, size);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
-        response.put("data", dtoList);
+        response.put("data", result.getItems());
+        response.put("next_cursor", result.getNextCursor());
+        response.put("has_more", result.isHasMore());
         return ResponseEntity.ok(response);
     }
 
@@ -4,6 +4,9 @@ import com.bikeexchange.dto.request.CategoryRequest;
 import com.bikeexchange.model.Category;
 import com.bikeexchange.service.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -68,11 +71,19 @@ public class CategoryController {
     }
 
     @GetMapping("/{id}/bikes")
-    @Operation(summary = "List bikes by category", description = "Get all bikes belonging to a specific category without pagination.")
-    public ResponseEntity<?> listBikesByCategory(@PathVariable Long id) {
-        List<com.bikeexchange.dto.response.BikeResponse> result = categoryService.listAllBikesByCategory(id);
+    @Operation(summary = "List bikes by category", description = "Get all bikes belonging to a specific category without pagination. With view=summary, returns a page (page, size) of lightweight listing cards, newest first.")
+    public ResponseEntity<?> listBikesByCategory(@PathVariable Long id,
+            @RequestParam(name = "view", required = false) String view,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
+        if ("summary".equalsIgnoreCase(view)) {
+            Pageable pageable = PageRequest.of(page, Math.min(size, 100), Sort.by(Sort.Direction.DESC, "createdAt"));
+            response.put("data", categoryService.listBikeSummariesByCategory(id, pageable));
+            return ResponseEntity.ok(response);
+        }
+        List<com.bikeexchange.dto.response.BikeResponse> result = categoryService.listAllBikesByCategory(id);
         response.put("data", result);
         return ResponseEntity.ok(response);
     }
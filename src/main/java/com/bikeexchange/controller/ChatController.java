@@ -2,21 +2,23 @@ package com.bikeexchange.controller;
 
 import com.bikeexchange.dto.request.ConversationCreateRequest;
 import com.bikeexchange.dto.request.MessageSendRequest;
+import com.bikeexchange.dto.response.ConversationSummary;
+import com.bikeexchange.dto.response.CursorPage;
+import com.bikeexchange.dto.response.MessageResponse;
 import com.bikeexchange.model.Conversation;
-import com.bikeexchange.model.Message;
+import com.bikeexchange.security.StompSessionContext;
 import com.bikeexchange.security.UserPrincipal;
+import com.bikeexchange.service.service.ChatMessageRelay;
 import com.bikeexchange.service.service.ChatService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,7 +38,7 @@ public class ChatController {
         private ChatService chatService;
 
         @Autowired
-        private SimpMessagingTemplate messagingTemplate;
+        private ChatMessageRelay chatMessageRelay;
 
         @GetMapping("/conversations")
         @PreAuthorize("isAuthenticated()")
@@ -52,6 +54,23 @@ public class ChatController {
                 return ResponseEntity.ok(response);
         }
 
+        @GetMapping("/inbox")
+        @PreAuthorize("isAuthenticated()")
+        @Operation(summary = "Get Inbox", description = "Paginated conversation summaries (counterpart, bike, last message, unread count), most recently active first. Pass next_cursor as cursor for the next page.")
+        public ResponseEntity<?> getInbox(
+                        @RequestParam(name = "cursor", required = false) String cursor,
+                        @RequestParam(name = "size", required = false) Integer size,
+                        @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser) {
+                CursorPage<ConversationSummary> page = chatService.getInbox(currentUser.getId(), cursor, size);
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("data", page.getItems());
+                response.put("next_cursor", page.getNextCursor());
+                response.put("has_more", page.isHasMore());
+                return ResponseEntity.ok(response);
+        }
+
         @PostMapping("/conversations")
         @PreAuthorize("isAuthenticated()")
         @Operation(summary = "Create or Get Conversation", description = "Explicitly creates a new conversation for a listing or returns an existing one.")
@@ -68,19 +87,41 @@ public class ChatController {
 
         @GetMapping("/conversations/{conversationId}/messages")
         @PreAuthorize("isAuthenticated()")
-        @Operation(summary = "Get Messages in a Conversation", description = "Retrieve a list of all messages for a specific conversation without pagination. Also marks messages as read.")
+        @Operation(summary = "Get Messages in a Conversation", description = "Retrieve a page of messages (oldest to newest) for a conversation. Without parameters returns the latest messages; pass next_cursor as cursor to load older ones, or after_id to fetch messages newer than the last one received. Also marks messages as read.")
         public ResponseEntity<?> getMessages(
                          @PathVariable(name = "conversationId") Long conversationId,
+                        @RequestParam(name = "cursor", required = false) String cursor,
+                        @RequestParam(name = "after_id", required = false) Long afterId,
+                        @RequestParam(name = "size", required = false) Integer size,
                         @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser) {
-                List<Message> messages = chatService.getMessagesAll(conversationId);
+                CursorPage<MessageResponse> page = chatService.getMessagePage(conversationId, currentUser.getId(),
+                                cursor, afterId, size);
 
-                // Mark as read when fetching
-                chatService.markAsRead(conversationId, currentUser.getId());
+                // Opening the thread (or catching up) reads it; loading older pages does not
+                if (cursor == null || cursor.isBlank()) {
+                        chatService.markAsRead(conversationId, currentUser.getId());
+                }
 
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", true);
-                response.put("data", messages);
+                response.put("data", page.getItems());
+                response.put("next_cursor", page.getNextCursor());
+                response.put("has_more", page.isHasMore());
+
+                return ResponseEntity.ok(response);
+        }
+
+        @PutMapping("/conversations/{conversationId}/read")
+        @PreAuthorize("isAuthenticated()")
+        @Operation(summary = "Mark Conversation as Read", description = "Moves the caller's read cursor to the given message (or the latest one) and clears their unread count.")
+        public ResponseEntity<?> markConversationRead(
+                        @PathVariable(name = "conversationId") Long conversationId,
+                        @RequestParam(name = "last_message_id", required = false) Long lastMessageId,
+                        @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser) {
+                chatService.markAsRead(conversationId, currentUser.getId(), lastMessageId);
 
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
                 return ResponseEntity.ok(response);
         }
 
@@ -92,53 +133,31 @@ public class ChatController {
                         @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser,
                         @RequestBody MessageSendRequest request) {
 
-                Message savedMessage = chatService.sendMessage(currentUser.getId(), request);
+                ChatService.Delivery delivery = chatService.sendMessage(currentUser.getId(), request);
 
                 // Optionally broadcast to receiver's specific queue
-                Long receiverId = savedMessage.getConversation().getBuyer().getId().equals(currentUser.getId())
-                                ? savedMessage.getConversation().getSeller().getId()
-                                : savedMessage.getConversation().getBuyer().getId();
-
-                messagingTemplate.convertAndSendToUser(
-                                receiverId.toString(),
-                                "/queue/messages",
-                                savedMessage);
+                chatMessageRelay.sendToUser(delivery.recipientId(), "/queue/messages", delivery.message());
 
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", true);
-                response.put("data", savedMessage);
+                response.put("data", delivery.message());
                 return ResponseEntity.ok(response);
         }
 
         // WebSocket STOMP endpoint
         @MessageMapping("/chat.sendMessage")
         @Operation(summary = "Send a Message via STOMP WebSocket", description = "Internal STOMP endpoint handling real-time WebSockets messages. Returns no HTTP response.")
-        public void sendMessage(@Payload MessageSendRequest request, Principal principal) {
-                // Retrieve sender ID from STOMP authenticated principal
-                if (principal instanceof UsernamePasswordAuthenticationToken) {
-                        UserPrincipal userPrincipal = (UserPrincipal) ((UsernamePasswordAuthenticationToken) principal)
-                                        .getPrincipal();
-                        Long senderId = userPrincipal.getId();
-
-                        // Save to DB
-                        Message savedMessage = chatService.sendMessage(senderId, request);
-
-                        // Determine receiver from the saved message's conversation
-                        Long receiverId = savedMessage.getConversation().getBuyer().getId().equals(senderId)
-                                        ? savedMessage.getConversation().getSeller().getId()
-                                        : savedMessage.getConversation().getBuyer().getId();
-
-                        // Broadcast to receiver's specific queue
-                        messagingTemplate.convertAndSendToUser(
-                                        receiverId.toString(),
-                                        "/queue/messages",
-                                        savedMessage);
-
-                        // Optionally, also broadcast back to sender's queue for confirmation
-                        messagingTemplate.convertAndSendToUser(
-                                        senderId.toString(),
-                                        "/queue/messages",
-                                        savedMessage);
+        public void sendMessage(@Payload MessageSendRequest request, SimpMessageHeaderAccessor headerAccessor) {
+                // Sender and membership come from the context stored at CONNECT
+                StompSessionContext session = StompSessionContext.from(headerAccessor.getSessionAttributes());
+                if (session == null) {
+                        return;
                 }
+
+                ChatService.Delivery delivery = chatService.sendMessage(session, request);
+
+                // One serialised payload for the receiver and the sender's confirmation echo
+                chatMessageRelay.sendToUsers(List.of(delivery.recipientId(), session.getUserId()),
+                                "/queue/messages", delivery.message());
         }
 }
@@ -11,6 +11,7 @@ import com.bikeexchange.dto.response.SellerSalesHistoryResponse;
 import com.bikeexchange.model.Order;
 import com.bikeexchange.security.UserPrincipal;
 import com.bikeexchange.service.service.OrderService;
+import com.bikeexchange.service.service.PurchaseAdmissionGate;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -39,6 +40,9 @@ public class OrderController {
     @Autowired
     private OrderRuleConfigService orderRuleConfigService;
 
+    @Autowired
+    private PurchaseAdmissionGate purchaseAdmissionGate;
+
     @GetMapping("/my-purchases")
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "[BUYER] Xem lịch sử mua hàng", description = "Người mua xem toàn bộ lịch sử mua hàng. Hỗ trợ lọc theo 1 trạng thái (dropdown, tùy chọn), bao gồm chi tiết đánh giá, khả năng đánh giá và dòng thời gian của từng đơn hàng.")
@@ -122,8 +126,17 @@ public class OrderController {
     public ResponseEntity<?> createOrder(
             @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestBody OrderCreateRequest request) {
-        boolean replayed = orderService.isReplayRequest(currentUser.getId(), request.getBikeId(), request.getIdempotencyKey());
-        Order order = orderService.createOrder(currentUser.getId(), request.getBikeId(), request.getIdempotencyKey());
+        if (request.getBikeId() == null) {
+            throw new IllegalArgumentException("bikeId is required");
+        }
+        // One attempt per bike reaches the database at a time; the rest wait briefly or get 429
+        Map.Entry<Boolean, Order> result = purchaseAdmissionGate.admit(request.getBikeId(), () -> {
+            boolean replayed = orderService.isReplayRequest(currentUser.getId(), request.getBikeId(), request.getIdempotencyKey());
+            Order created = orderService.createOrder(currentUser.getId(), request.getBikeId(), request.getIdempotencyKey());
+            return Map.entry(replayed, created);
+        });
+        boolean replayed = result.getKey();
+        Order order = result.getValue();
         long returnWindowTotalMinutes = orderRuleConfigService.getReturnWindowTotalMinutes();
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -5,6 +5,8 @@ import com.bikeexchange.model.User;
 import com.bikeexchange.repository.UserRepository;
 import com.bikeexchange.security.UserPrincipal;
 import com.bikeexchange.service.CloudinaryService;
+import com.bikeexchange.service.ImageUploadPipeline;
+import com.bikeexchange.service.MediaAssetService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -36,6 +38,12 @@ public class UploadController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ImageUploadPipeline imageUploadPipeline;
+
+    @Autowired
+    private MediaAssetService mediaAssetService;
+
     /**
      * Upload bike image with seller information
      * When seller uploads bike images, include seller's address and shop name
@@ -78,9 +86,9 @@ public class UploadController {
             User seller = userRepository.findById(currentUser.getId())
                     .orElseThrow(() -> new RuntimeException("Seller not found"));
 
-            // Upload to Cloudinary with bikes folder + seller ID subfolder
+            // Upload to Cloudinary with bikes folder + seller ID subfolder (skipped if the seller already has this photo)
             String folder = "bikes/seller-" + seller.getId();
-            Map<String, Object> uploadResult = cloudinaryService.uploadFile(file, folder);
+            Map<String, Object> uploadResult = mediaAssetService.uploadOnce(seller.getId(), file, folder);
 
             // Get seller address (shop location)
             String sellerAddress = seller.getAddress() != null ? seller.getAddress() : "Not specified";
@@ -144,37 +152,31 @@ public class UploadController {
             String sellerName = seller.getShopName() != null ? seller.getShopName() : seller.getFullName();
             String folder = "bikes/seller-" + seller.getId();
 
-            java.util.List<ImageUploadResponse> uploadedImages = new java.util.ArrayList<>();
-
+            java.util.List<MultipartFile> validFiles = new java.util.ArrayList<>();
             for (MultipartFile file : files) {
-                if (file.isEmpty() || file.getSize() > 5 * 1024 * 1024) {
-                    continue;
+                if (ImageUploadPipeline.isAcceptableImage(file)) {
+                    validFiles.add(file);
                 }
+            }
 
-                String contentType = file.getContentType();
-                if (contentType == null || !contentType.startsWith("image/")) {
+            // Uploads run concurrently; failed files are skipped as before
+            java.util.List<ImageUploadResponse> uploadedImages = new java.util.ArrayList<>();
+            for (ImageUploadPipeline.Upload upload : imageUploadPipeline.uploadAll(seller.getId(), validFiles, folder)) {
+                if (!upload.succeeded()) {
                     continue;
                 }
-
-                try {
-                    Map<String, Object> uploadResult = cloudinaryService.uploadFile(file, folder);
-                    String thumbnailUrl = cloudinaryService.getThumbnailUrl((String) uploadResult.get("public_id"));
-
-                    ImageUploadResponse uploadResponse = ImageUploadResponse.builder()
-                            .url((String) uploadResult.get("secure_url"))
-                            .publicId((String) uploadResult.get("public_id"))
-                            .fileSize((Long) uploadResult.get("bytes"))
-                            .uploadedAt(LocalDateTime.now().toString())
-                            .sellerAddress(sellerAddress)
-                            .sellerName(sellerName)
-                            .cloudinaryFolder(folder)
-                            .thumbnailUrl(thumbnailUrl)
-                            .build();
-
-                    uploadedImages.add(uploadResponse);
-                } catch (IOException e) {
-                    log.warn("Failed to upload file: {}", e.getMessage());
-                }
+                ImageUploadResponse uploadResponse = ImageUploadResponse.builder()
+                        .url(upload.secureUrl())
+                        .publicId(upload.publicId())
+                        .fileSize(upload.bytes())
+                        .uploadedAt(LocalDateTime.now().toString())
+                        .sellerAddress(sellerAddress)
+                        .sellerName(sellerName)
+                        .cloudinaryFolder(folder)
+                        .thumbnailUrl(cloudinaryService.getThumbnailUrl(upload.publicId()))
+                        .build();
+
+                uploadedImages.add(uploadResponse);
             }
 
             if (uploadedImages.isEmpty()) {
@@ -218,7 +220,8 @@ public class UploadController {
             // Decode the public_id from URL parameter
             String decodedPublicId = java.net.URLDecoder.decode(publicId, java.nio.charset.StandardCharsets.UTF_8);
 
-            cloudinaryService.deleteFile(decodedPublicId);
+            // Registered images are only deleted by their seller and once no listing uses them
+            mediaAssetService.delete(currentUser.getId(), decodedPublicId);
             
             log.info("Image deleted by user {}: {}", currentUser.getId(), decodedPublicId);
 
@@ -228,6 +231,16 @@ public class UploadController {
 
             return ResponseEntity.ok(result);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(403).body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
         } catch (Exception e) {
             log.error("Error deleting image: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError().body(Map.of(
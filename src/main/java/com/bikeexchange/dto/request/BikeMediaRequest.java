@@ -9,6 +9,9 @@ public class BikeMediaRequest {
     @Schema(description = "URL of the image or video", example = "https://example.com/image.jpg")
     private String url;
 
+    @Schema(description = "Cloudinary public id returned by /upload; derived from the URL when omitted", example = "bikes/seller-1/abc123")
+    private String publicId;
+
     @Schema(description = "Type of media. Options: IMAGE, VIDEO", example = "IMAGE")
     private String type;
 
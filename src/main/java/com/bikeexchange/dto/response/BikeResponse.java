@@ -1,6 +1,8 @@
 package com.bikeexchange.dto.response;
 
 import com.bikeexchange.model.Bike;
+import com.bikeexchange.model.BikeMedia;
+import com.bikeexchange.util.ImageVariants;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -32,6 +34,9 @@ public class BikeResponse {
     @Data
     public static class MediaResponse {
         private String url;
+        private String thumbnailUrl;
+        private String cardUrl;
+        private String fullUrl;
         private String type;
         private Integer sortOrder;
     }
@@ -68,6 +73,11 @@ public class BikeResponse {
             res.setMedia(bike.getMedia().stream().map(m -> {
                 MediaResponse mr = new MediaResponse();
                 mr.setUrl(m.getUrl());
+                if (m.getType() == BikeMedia.MediaType.IMAGE) {
+                    mr.setThumbnailUrl(ImageVariants.url(m.getUrl(), ImageVariants.Variant.THUMBNAIL));
+                    mr.setCardUrl(ImageVariants.url(m.getUrl(), ImageVariants.Variant.CARD));
+                    mr.setFullUrl(ImageVariants.url(m.getUrl(), ImageVariants.Variant.FULL));
+                }
                 mr.setType(m.getType().name());
                 mr.setSortOrder(m.getSortOrder());
                 return mr;
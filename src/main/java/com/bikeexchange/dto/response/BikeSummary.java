@@ -0,0 +1,33 @@
+package com.bikeexchange.dto.response;
+
+import com.bikeexchange.model.Bike;
+import com.bikeexchange.util.ImageVariants;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing-grid card for a bike (view=summary). Built directly by JPQL constructor
+ * expressions in BikeRepository, so no Bike entity, description or media list is loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BikeSummary {
+    private Long id;
+    private String title;
+    private Long pricePoints;
+    private String brand;
+    private String location;
+    private Bike.BikeStatus status;
+    private Bike.InspectionStatus inspectionStatus;
+    private String thumbnailUrl;
+    private LocalDateTime createdAt;
+
+    // Grid cards render the card-sized variant rather than the original upload
+    public String getThumbnailUrl() {
+        return ImageVariants.url(thumbnailUrl, ImageVariants.Variant.CARD);
+    }
+}
@@ -0,0 +1,33 @@
+package com.bikeexchange.dto.response;
+
+import com.bikeexchange.util.ImageVariants;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inbox row for one conversation, seen from the requesting user. Built by JPQL constructor
+ * expressions in ConversationRepository from the denormalised last-message columns.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationSummary {
+    private Long id;
+    private Long bikeId;
+    private String bikeTitle;
+    private String bikeThumbnailUrl;
+    private Long counterpartId;
+    private String counterpartName;
+    private String lastMessagePreview;
+    private LocalDateTime lastMessageAt;
+    private Long lastMessageSenderId;
+    private Integer unreadCount;
+    private LocalDateTime updatedAt;
+
+    public String getBikeThumbnailUrl() {
+        return ImageVariants.url(bikeThumbnailUrl, ImageVariants.Variant.THUMBNAIL);
+    }
+}
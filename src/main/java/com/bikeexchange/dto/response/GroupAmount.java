@@ -0,0 +1,8 @@
+package com.bikeexchange.dto.response;
+
+/**
+ * GROUP BY row that also carries the summed points of the group.
+ */
+public interface GroupAmount extends GroupCount {
+    Long getAmount();
+}
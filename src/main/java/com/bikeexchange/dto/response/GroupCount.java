@@ -0,0 +1,10 @@
+package com.bikeexchange.dto.response;
+
+/**
+ * Row of a GROUP BY count: the grouping value (role, status, ...) and its row count.
+ */
+public interface GroupCount {
+    Object getKey();
+
+    Long getTotal();
+}
@@ -0,0 +1,34 @@
+package com.bikeexchange.dto.response;
+
+import com.bikeexchange.model.Message;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Chat message as sent to clients: ids instead of the conversation and sender entities.
+ * Built directly by JPQL constructor expressions in MessageRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageResponse {
+    private Long id;
+    private Long conversationId;
+    private Long senderId;
+    private String content;
+    private Boolean isRead;
+    private LocalDateTime createdAt;
+
+    public static MessageResponse fromEntity(Message message) {
+        return new MessageResponse(
+                message.getId(),
+                message.getConversation() != null ? message.getConversation().getId() : null,
+                message.getSender() != null ? message.getSender().getId() : null,
+                message.getContent(),
+                message.getIsRead(),
+                message.getCreatedAt());
+    }
+}
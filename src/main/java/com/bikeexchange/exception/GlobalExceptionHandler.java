@@ -1,5 +1,6 @@
 package com.bikeexchange.exception;
 
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -30,6 +31,11 @@ public class GlobalExceptionHandler {
         return createResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    @ExceptionHandler(PurchaseBusyException.class)
+    public ResponseEntity<?> handlePurchaseBusy(PurchaseBusyException ex) {
+        return createResponse(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<?> handleIllegalArgument(IllegalArgumentException ex) {
         // Many security checks currently throw this, but it's often a Bad Request or
@@ -48,6 +54,12 @@ public class GlobalExceptionHandler {
         return createResponse(HttpStatus.CONFLICT, ex.getMessage());
     }
 
+    @ExceptionHandler(PessimisticLockingFailureException.class)
+    public ResponseEntity<?> handleLockConflict(PessimisticLockingFailureException ex) {
+        // Still conflicting after @RetryOnDeadlock gave up; the request is safe to repeat
+        return createResponse(HttpStatus.SERVICE_UNAVAILABLE, "The request conflicted with concurrent updates, please try again");
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<?> handleAccessDenied(AccessDeniedException ex) {
         return createResponse(HttpStatus.FORBIDDEN, "Access denied: " + ex.getMessage());
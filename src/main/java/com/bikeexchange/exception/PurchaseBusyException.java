@@ -0,0 +1,11 @@
+package com.bikeexchange.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class PurchaseBusyException extends RuntimeException {
+    public PurchaseBusyException(String message) {
+        super(message);
+    }
+}
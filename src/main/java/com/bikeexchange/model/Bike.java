@@ -1,10 +1,12 @@
 package com.bikeexchange.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -15,7 +17,9 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "bikes")
+@Table(name = "bikes", indexes = {
+        @Index(name = "idx_bikes_created_at_id", columnList = "created_at, id")
+})
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Bike {
     @Id
@@ -32,7 +36,9 @@ public class Bike {
     @JoinColumn(name = "brand_id", nullable = false)
     private Brand brand;
 
+    // Batch sizes match the listing page cap so a page initialises each collection in one query
     @ManyToMany
+    @BatchSize(size = 100)
     @JoinTable(name = "bike_categories", joinColumns = @JoinColumn(name = "bike_id"), inverseJoinColumns = @JoinColumn(name = "category_id"))
     private Set<Category> categories = new HashSet<>();
 
@@ -76,8 +82,14 @@ public class Bike {
     private User seller;
 
     @OneToMany(mappedBy = "bike", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<BikeMedia> media = new ArrayList<>();
 
+    // Accent-folded title/model/brand text backing the FULLTEXT index (see BikeSearchService)
+    @JsonIgnore
+    @Column(name = "search_text", columnDefinition = "TEXT")
+    private String searchText;
+
     @Column(name = "views", columnDefinition = "INT DEFAULT 0")
     private Integer views;
 
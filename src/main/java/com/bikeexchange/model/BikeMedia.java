@@ -26,6 +26,10 @@ public class BikeMedia {
     @Column(nullable = false)
     private String url;
 
+    // Cloudinary public id, used to delete the asset; null for external URLs
+    @Column(name = "public_id")
+    private String publicId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private MediaType type;
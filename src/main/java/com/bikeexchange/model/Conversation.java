@@ -5,13 +5,18 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "conversations")
+@Table(name = "conversations", indexes = {
+        @Index(name = "idx_conversations_buyer_updated_at", columnList = "buyer_id, updated_at, id"),
+        @Index(name = "idx_conversations_seller_updated_at", columnList = "seller_id, updated_at, id")
+})
+@DynamicUpdate // read cursors and unread counters are changed by bulk updates; never write them back stale
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Conversation {
     @Id
@@ -36,6 +41,33 @@ public class Conversation {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Id of the last message each participant has read (null until backfilled)
+    @Column(name = "buyer_last_read_message_id")
+    private Long buyerLastReadMessageId;
+
+    @Column(name = "seller_last_read_message_id")
+    private Long sellerLastReadMessageId;
+
+    // Latest message, copied here so the inbox does not have to read messages
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_message_preview", length = 200)
+    private String lastMessagePreview;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "last_message_sender_id")
+    private Long lastMessageSenderId;
+
+    // Messages from the other participant after the read cursor
+    @Column(name = "buyer_unread_count", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer buyerUnreadCount = 0;
+
+    @Column(name = "seller_unread_count", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer sellerUnreadCount = 0;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
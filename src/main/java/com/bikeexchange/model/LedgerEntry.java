@@ -0,0 +1,38 @@
+package com.bikeexchange.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One balanced movement of points (escrow hold, release, fee, refund...). Its postings
+ * sum to zero. {@code entryKey} makes posting idempotent: an entry with a key that already
+ * exists is not applied again. Entries are append-only.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ledger_entries", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ledger_entries_entry_key", columnNames = "entry_key")
+})
+public class LedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entry_key", nullable = false, length = 150)
+    private String entryKey;
+
+    @Column(name = "entry_type", nullable = false, length = 40)
+    private String entryType;
+
+    @Column(name = "reference_id")
+    private String referenceId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,45 @@
+package com.bikeexchange.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One leg of a {@link LedgerEntry}: a signed change to one account. Wallet accounts
+ * ({@code user:<id>:available|frozen}) carry the account balance right after the entry;
+ * platform and external accounts do not, so they never become a row every entry updates.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ledger_postings", indexes = {
+        @Index(name = "idx_ledger_postings_entry", columnList = "entry_id"),
+        @Index(name = "idx_ledger_postings_account_id", columnList = "account, id")
+})
+public class LedgerPosting {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entry_id", nullable = false)
+    private Long entryId;
+
+    @Column(nullable = false, length = 60)
+    private String account;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long amount;
+
+    @Column(name = "balance_after")
+    private Long balanceAfter;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,55 @@
+package com.bikeexchange.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An image a seller uploaded to Cloudinary, keyed by the SHA-256 of its content so the
+ * same photo is stored once per seller. {@code refCount} is the number of bike_media rows
+ * using it; the asset is only deleted from Cloudinary once nothing references it.
+ * {@code heldUntil} protects a fresh or reused upload until the listing that will use it is saved.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "media_assets", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_media_assets_seller_sha256", columnNames = { "seller_id", "sha256" })
+}, indexes = {
+        @Index(name = "idx_media_assets_public_id", columnList = "public_id")
+})
+public class MediaAsset {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "public_id", nullable = false)
+    private String publicId;
+
+    @Column(name = "secure_url", nullable = false)
+    private String secureUrl;
+
+    private Long bytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "held_until")
+    private LocalDateTime heldUntil;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
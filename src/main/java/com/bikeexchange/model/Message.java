@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_messages_conversation_created_at_id", columnList = "conversation_id, created_at, id")
+})
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Message {
     @Id
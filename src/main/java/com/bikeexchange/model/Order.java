@@ -11,7 +11,12 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_created_at", columnList = "status, created_at"),
+        @Index(name = "idx_orders_buyer_created_at", columnList = "buyer_id, created_at"),
+        @Index(name = "idx_orders_status_delivered_at", columnList = "status, delivered_at"),
+        @Index(name = "idx_orders_status_accepted_at", columnList = "status, accepted_at")
+})
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Order {
     @Id
@@ -35,6 +35,14 @@ public class OrderRuleConfig {
     @Column(name = "return_window_minutes", nullable = false)
     private Integer returnWindowMinutes = 0;
 
+    // Seller must accept an ESCROWED order / ship an ACCEPTED order within this many hours,
+    // otherwise it is cancelled and refunded; 0 disables. Null on rows created before these existed.
+    @Column(name = "accept_window_hours")
+    private Integer acceptWindowHours;
+
+    @Column(name = "ship_window_hours")
+    private Integer shipWindowHours;
+
     @Column(name = "bike_post_fee", nullable = false)
     private Long bikePostFee;
 
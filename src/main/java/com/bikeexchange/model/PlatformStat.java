@@ -0,0 +1,44 @@
+package com.bikeexchange.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Incrementally maintained platform counter (users by role, bikes/orders by status,
+ * escrow and commission totals...). A counter is spread over a few slots so concurrent
+ * transactions rarely update the same row; its value is the sum of its slots.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "platform_stats")
+@IdClass(PlatformStat.Key.class)
+public class PlatformStat {
+    @Id
+    @Column(name = "stat_key", length = 100)
+    private String statKey;
+
+    @Id
+    @Column(name = "slot")
+    private Integer slot;
+
+    @Column(name = "stat_value", nullable = false)
+    private Long value;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String statKey;
+        private Integer slot;
+    }
+}
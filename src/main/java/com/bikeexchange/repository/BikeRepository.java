@@ -4,9 +4,12 @@ import com.bikeexchange.model.Bike;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,11 +17,22 @@ import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.Lock;
 
 @Repository
-public interface BikeRepository extends JpaRepository<Bike, Long> {
+public interface BikeRepository extends JpaRepository<Bike, Long>, JpaSpecificationExecutor<Bike>, BikeRepositoryCustom {
        @Lock(LockModeType.PESSIMISTIC_WRITE)
        @Query("SELECT b FROM Bike b WHERE b.id = :id")
        Optional<Bike> findByIdForUpdate(@Param("id") Long id);
 
+       /**
+        * Reserves a bike that is still in the status and at the price the caller read;
+        * 0 when another buyer claimed it first or the listing changed.
+        */
+       @Modifying
+       @Query("UPDATE Bike b SET b.status = :reserved, b.updatedAt = :now " +
+                     "WHERE b.id = :id AND b.status = :expected AND b.pricePoints = :pricePoints")
+       int claimForOrder(@Param("id") Long id, @Param("expected") Bike.BikeStatus expected,
+                     @Param("pricePoints") Long pricePoints, @Param("reserved") Bike.BikeStatus reserved,
+                     @Param("now") LocalDateTime now);
+
        Page<Bike> findByStatus(Bike.BikeStatus status, Pageable pageable);
 
        Page<Bike> findBySellerIdAndStatus(Long sellerId, Bike.BikeStatus status, Pageable pageable);
@@ -88,5 +102,25 @@ public interface BikeRepository extends JpaRepository<Bike, Long> {
                                                      @Param("sellerId") Long sellerId,
                                                      Pageable pageable);
 
+       @Query("SELECT b FROM Bike b JOIN FETCH b.brand WHERE b.id IN :ids")
+       List<Bike> findWithBrandByIdIn(@Param("ids") java.util.Collection<Long> ids);
+
+       String SUMMARY_SELECT = "SELECT new com.bikeexchange.dto.response.BikeSummary(" +
+               "b.id, b.title, b.pricePoints, br.name, b.location, b.status, b.inspectionStatus, " +
+               "(SELECT MIN(m.url) FROM BikeMedia m WHERE m.bike = b AND m.type = 'IMAGE' AND m.sortOrder = " +
+               "(SELECT MIN(m2.sortOrder) FROM BikeMedia m2 WHERE m2.bike = b AND m2.type = 'IMAGE')), " +
+               "b.createdAt) FROM Bike b JOIN b.brand br ";
+
+       @Query(SUMMARY_SELECT + "WHERE b.id IN :ids")
+       List<com.bikeexchange.dto.response.BikeSummary> findSummariesByIdIn(@Param("ids") java.util.Collection<Long> ids);
+
+       @Query(value = SUMMARY_SELECT + "JOIN b.categories c WHERE c.id = :categoryId",
+               countQuery = "SELECT COUNT(b) FROM Bike b JOIN b.categories c WHERE c.id = :categoryId")
+       Page<com.bikeexchange.dto.response.BikeSummary> findSummariesByCategoryId(@Param("categoryId") Long categoryId,
+                                                                               Pageable pageable);
+
        long countByBrandId(Long brandId);
+
+       @Query("SELECT b.status AS key, COUNT(b) AS total FROM Bike b GROUP BY b.status")
+       List<com.bikeexchange.dto.response.GroupCount> countGroupByStatus();
 }
@@ -0,0 +1,28 @@
+package com.bikeexchange.repository;
+
+import com.bikeexchange.model.Bike;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface BikeRepositoryCustom {
+
+    /**
+     * First phase of a listing page: returns up to {@code limit} rows of {id, sortKey},
+     * newest first (or by seller rating, COALESCEd to 0), strictly after the given keyset
+     * position. Only the key columns are selected so the query can be served from the
+     * (created_at, id) index.
+     */
+    List<Object[]> findListingKeys(Specification<Bike> filters, boolean byRating,
+                                   Object afterSortKey, Long afterId, int limit);
+
+    /**
+     * First phase of a keyword listing page ordered by full-text relevance: rows of
+     * {id, score}, best match first, strictly after the given (score, id) position.
+     * {@code booleanQuery} is a boolean-mode MATCH ... AGAINST query; only rows with a
+     * positive score are returned, so it also acts as the keyword filter. Scores move as the
+     * index changes, so a listing edited between two pages may be skipped or shown twice.
+     */
+    List<Object[]> findRelevanceKeys(Specification<Bike> filters, String booleanQuery,
+                                     Double afterScore, Long afterId, int limit);
+}
@@ -0,0 +1,73 @@
+package com.bikeexchange.repository;
+
+import com.bikeexchange.model.Bike;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+public class BikeRepositoryCustomImpl implements BikeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> findListingKeys(Specification<Bike> filters, boolean byRating,
+                                          Object afterSortKey, Long afterId, int limit) {
+        return findKeys(filters, (root, cb) -> byRating
+                ? cb.coalesce(root.join("seller").<Double>get("rating"), 0.0)
+                : root.get("createdAt"), false, afterSortKey, afterId, limit);
+    }
+
+    @Override
+    public List<Object[]> findRelevanceKeys(Specification<Bike> filters, String booleanQuery,
+                                            Double afterScore, Long afterId, int limit) {
+        return findKeys(filters, (root, cb) -> cb.function("match_against", Double.class,
+                root.get("searchText"), cb.literal(booleanQuery)), true, afterScore, afterId, limit);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private List<Object[]> findKeys(Specification<Bike> filters,
+                                    BiFunction<Root<Bike>, CriteriaBuilder, Expression<?>> sortKeyOf,
+                                    boolean positiveOnly, Object afterSortKey, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Bike> root = query.from(Bike.class);
+
+        Expression<Long> id = root.get("id");
+        Expression sortKey = sortKeyOf.apply(root, cb);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filters != null) {
+            Predicate filter = filters.toPredicate(root, query, cb);
+            if (filter != null) {
+                predicates.add(filter);
+            }
+        }
+        if (positiveOnly) {
+            predicates.add(cb.greaterThan(sortKey, 0.0));
+        }
+        if (afterSortKey != null && afterId != null) {
+            Comparable after = (Comparable) afterSortKey;
+            predicates.add(cb.or(
+                    cb.lessThan(sortKey, after),
+                    cb.and(cb.equal(sortKey, after), cb.lessThan(id, afterId))));
+        }
+
+        query.multiselect(id, sortKey)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(sortKey), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -1,11 +1,15 @@
 package com.bikeexchange.repository;
 
+import com.bikeexchange.dto.response.ConversationSummary;
 import com.bikeexchange.model.Conversation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +19,85 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
     @Query("SELECT c FROM Conversation c WHERE c.buyer.id = :userId OR c.seller.id = :userId ORDER BY c.updatedAt DESC")
     List<Conversation> findUserConversations(@Param("userId") Long userId);
 
+    interface ReadState {
+        Long getBuyerId();
+
+        Long getSellerId();
+
+        Long getBuyerLastReadMessageId();
+
+        Long getSellerLastReadMessageId();
+    }
+
+    @Query("SELECT c.buyer.id AS buyerId, c.seller.id AS sellerId, " +
+            "c.buyerLastReadMessageId AS buyerLastReadMessageId, c.sellerLastReadMessageId AS sellerLastReadMessageId " +
+            "FROM Conversation c WHERE c.id = :id")
+    Optional<ReadState> findReadState(@Param("id") Long conversationId);
+
+    String LAST_MESSAGE_IS_OLDER = "(c.lastMessageId IS NULL OR c.lastMessageId < :messageId)";
+
+    // Sends can commit out of order, so the preview only moves forward to a newer message id.
+    // MySQL applies SET assignments left to right, so lastMessageId must be assigned last.
+    String LAST_MESSAGE_SET =
+            "c.lastMessagePreview = CASE WHEN " + LAST_MESSAGE_IS_OLDER + " THEN :preview ELSE c.lastMessagePreview END, " +
+            "c.lastMessageAt = CASE WHEN " + LAST_MESSAGE_IS_OLDER + " THEN :now ELSE c.lastMessageAt END, " +
+            "c.lastMessageSenderId = CASE WHEN " + LAST_MESSAGE_IS_OLDER + " THEN :senderId ELSE c.lastMessageSenderId END, " +
+            "c.updatedAt = :now, " +
+            "c.lastMessageId = CASE WHEN " + LAST_MESSAGE_IS_OLDER + " THEN :messageId ELSE c.lastMessageId END ";
+
+    // One UPDATE per message: last-message preview, updated_at and the recipient's unread counter
+    @Modifying
+    @Query("UPDATE Conversation c SET c.buyerUnreadCount = c.buyerUnreadCount + 1, " + LAST_MESSAGE_SET +
+            "WHERE c.id = :id")
+    int recordMessageForBuyer(@Param("id") Long conversationId, @Param("messageId") Long messageId,
+                              @Param("preview") String preview, @Param("senderId") Long senderId,
+                              @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Conversation c SET c.sellerUnreadCount = c.sellerUnreadCount + 1, " + LAST_MESSAGE_SET +
+            "WHERE c.id = :id")
+    int recordMessageForSeller(@Param("id") Long conversationId, @Param("messageId") Long messageId,
+                               @Param("preview") String preview, @Param("senderId") Long senderId,
+                               @Param("now") LocalDateTime now);
+
+    String INBOX_THUMBNAIL = "(SELECT MIN(m.url) FROM BikeMedia m WHERE m.bike = b AND m.type = 'IMAGE' AND m.sortOrder = " +
+            "(SELECT MIN(m2.sortOrder) FROM BikeMedia m2 WHERE m2.bike = b AND m2.type = 'IMAGE'))";
+
+    // Inbox pages for each side of the conversation, newest first; each runs on its own
+    // (buyer_id|seller_id, updated_at, id) index and the service merges the two
+    @Query("SELECT new com.bikeexchange.dto.response.ConversationSummary(c.id, b.id, b.title, " + INBOX_THUMBNAIL + ", " +
+            "s.id, s.fullName, c.lastMessagePreview, c.lastMessageAt, c.lastMessageSenderId, c.buyerUnreadCount, c.updatedAt) " +
+            "FROM Conversation c JOIN c.seller s LEFT JOIN c.bike b WHERE c.buyer.id = :userId " +
+            "AND (c.updatedAt < :afterAt OR (c.updatedAt = :afterAt AND c.id < :afterId)) " +
+            "ORDER BY c.updatedAt DESC, c.id DESC")
+    List<ConversationSummary> findBuyerInbox(@Param("userId") Long userId, @Param("afterAt") LocalDateTime afterAt,
+                                             @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.bikeexchange.dto.response.ConversationSummary(c.id, b.id, b.title, " + INBOX_THUMBNAIL + ", " +
+            "u.id, u.fullName, c.lastMessagePreview, c.lastMessageAt, c.lastMessageSenderId, c.sellerUnreadCount, c.updatedAt) " +
+            "FROM Conversation c JOIN c.buyer u LEFT JOIN c.bike b WHERE c.seller.id = :userId " +
+            "AND (c.updatedAt < :afterAt OR (c.updatedAt = :afterAt AND c.id < :afterId)) " +
+            "ORDER BY c.updatedAt DESC, c.id DESC")
+    List<ConversationSummary> findSellerInbox(@Param("userId") Long userId, @Param("afterAt") LocalDateTime afterAt,
+                                              @Param("afterId") Long afterId, Pageable pageable);
+
+    // Moves the cursor forward only; the count is recomputed for messages that arrived after it
+    @Modifying
+    @Query("UPDATE Conversation c SET c.buyerLastReadMessageId = :lastId, " +
+            "c.buyerUnreadCount = (SELECT COUNT(m) FROM Message m WHERE m.conversation.id = :id " +
+            "AND m.id > :lastId AND m.sender.id <> :userId) " +
+            "WHERE c.id = :id AND c.buyer.id = :userId " +
+            "AND (c.buyerLastReadMessageId IS NULL OR c.buyerLastReadMessageId < :lastId)")
+    int markReadByBuyer(@Param("id") Long conversationId, @Param("userId") Long userId, @Param("lastId") Long lastMessageId);
+
+    @Modifying
+    @Query("UPDATE Conversation c SET c.sellerLastReadMessageId = :lastId, " +
+            "c.sellerUnreadCount = (SELECT COUNT(m) FROM Message m WHERE m.conversation.id = :id " +
+            "AND m.id > :lastId AND m.sender.id <> :userId) " +
+            "WHERE c.id = :id AND c.seller.id = :userId " +
+            "AND (c.sellerLastReadMessageId IS NULL OR c.sellerLastReadMessageId < :lastId)")
+    int markReadBySeller(@Param("id") Long conversationId, @Param("userId") Long userId, @Param("lastId") Long lastMessageId);
+
     @Query("SELECT c FROM Conversation c WHERE c.bike.id = :bikeId AND c.buyer.id = :buyerId")
     Optional<Conversation> findByBikeIdAndBuyerId(@Param("bikeId") Long bikeId,
             @Param("buyerId") Long buyerId);
@@ -18,6 +18,11 @@ public interface DisputeRepository extends JpaRepository<Dispute, Long> {
 
     List<Dispute> findByStatus(Dispute.DisputeStatus status);
 
+    long countByStatus(Dispute.DisputeStatus status);
+
+    @org.springframework.data.jpa.repository.Query("SELECT d.status AS key, COUNT(d) AS total FROM Dispute d GROUP BY d.status")
+    List<com.bikeexchange.dto.response.GroupCount> countGroupByStatus();
+
     List<Dispute> findByStatusInOrderByCreatedAtDesc(List<Dispute.DisputeStatus> statuses);
 
     List<Dispute> findByStatusInOrderByResolvedAtDesc(List<Dispute.DisputeStatus> statuses);
@@ -24,4 +24,7 @@ public interface InspectionRepository extends JpaRepository<InspectionRequest, L
 
     @org.springframework.data.jpa.repository.Query("SELECT SUM(i.feePoints) FROM InspectionRequest i WHERE i.status IN :statuses")
     Long sumFeePointsByStatusIn(@org.springframework.data.repository.query.Param("statuses") java.util.Collection<InspectionRequest.RequestStatus> statuses);
+
+    @org.springframework.data.jpa.repository.Query("SELECT i.status AS key, COUNT(i) AS total, COALESCE(SUM(i.feePoints), 0) AS amount FROM InspectionRequest i GROUP BY i.status")
+    java.util.List<com.bikeexchange.dto.response.GroupAmount> aggregateByStatus();
 }
@@ -0,0 +1,31 @@
+package com.bikeexchange.repository;
+
+import com.bikeexchange.model.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO job_leases (job_name, owner, expires_at, updated_at) " +
+            "VALUES (:jobName, NULL, :now, :now)", nativeQuery = true)
+    int insertIfAbsent(@Param("jobName") String jobName, @Param("now") LocalDateTime now);
+
+    // Takes the lease if it is free or expired, or extends it if the caller already holds it
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = :owner, l.expiresAt = :until, l.updatedAt = :now " +
+            "WHERE l.jobName = :jobName AND (l.owner = :owner OR l.owner IS NULL OR l.expiresAt < :now)")
+    int acquire(@Param("jobName") String jobName, @Param("owner") String owner,
+                @Param("until") LocalDateTime until, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = NULL, l.expiresAt = :now, l.updatedAt = :now " +
+            "WHERE l.jobName = :jobName AND l.owner = :owner")
+    int release(@Param("jobName") String jobName, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,60 @@
+package com.bikeexchange.repository;
+
+import com.bikeexchange.model.MediaAsset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface MediaAssetRepository extends JpaRepository<MediaAsset, Long> {
+
+    Optional<MediaAsset> findBySellerIdAndSha256(Long sellerId, String sha256);
+
+    Optional<MediaAsset> findFirstByPublicId(String publicId);
+
+    // Concurrent uploads of the same photo race on (seller_id, sha256); the loser gets 0
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO media_assets (seller_id, sha256, public_id, secure_url, bytes, ref_count, held_until, created_at, updated_at) " +
+            "VALUES (:sellerId, :sha256, :publicId, :secureUrl, :bytes, 0, :heldUntil, :now, :now)", nativeQuery = true)
+    int insertIfAbsent(@Param("sellerId") Long sellerId, @Param("sha256") String sha256,
+                       @Param("publicId") String publicId, @Param("secureUrl") String secureUrl,
+                       @Param("bytes") Long bytes, @Param("heldUntil") LocalDateTime heldUntil,
+                       @Param("now") LocalDateTime now);
+
+    // 0 when the asset was purged after it was read; the caller must upload the file again
+    @Modifying
+    @Query("UPDATE MediaAsset a SET a.heldUntil = CASE WHEN a.heldUntil IS NULL OR a.heldUntil < :heldUntil " +
+            "THEN :heldUntil ELSE a.heldUntil END, a.updatedAt = :now WHERE a.id = :id")
+    int hold(@Param("id") Long id, @Param("heldUntil") LocalDateTime heldUntil, @Param("now") LocalDateTime now);
+
+    // Only clears the hold if no later upload extended it meanwhile
+    @Modifying
+    @Query("UPDATE MediaAsset a SET a.heldUntil = NULL, a.updatedAt = :now " +
+            "WHERE a.publicId = :publicId AND a.sellerId = :sellerId AND a.heldUntil = :heldUntil")
+    int releaseHold(@Param("sellerId") Long sellerId, @Param("publicId") String publicId,
+                    @Param("heldUntil") LocalDateTime heldUntil, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE MediaAsset a SET a.refCount = a.refCount + :delta, a.updatedAt = :now " +
+            "WHERE a.publicId = :publicId AND a.sellerId = :sellerId")
+    int retain(@Param("sellerId") Long sellerId, @Param("publicId") String publicId, @Param("delta") int delta, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE MediaAsset a SET a.refCount = CASE WHEN a.refCount > :delta THEN a.refCount - :delta ELSE 0 END, " +
+            "a.updatedAt = :now WHERE a.publicId = :publicId AND a.sellerId = :sellerId")
+    int release(@Param("sellerId") Long sellerId, @Param("publicId") String publicId, @Param("delta") int delta, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM MediaAsset a WHERE a.publicId = :publicId AND a.refCount = 0")
+    int deleteIfUnreferenced(@Param("publicId") String publicId);
+
+    @Modifying
+    @Query("DELETE FROM MediaAsset a WHERE a.publicId = :publicId AND a.refCount = 0 " +
+            "AND (a.heldUntil IS NULL OR a.heldUntil < :now)")
+    int deleteIfUnreferencedAndUnheld(@Param("publicId") String publicId, @Param("now") LocalDateTime now);
+}
@@ -1,17 +1,53 @@
 package com.bikeexchange.repository;
 
+import com.bikeexchange.dto.response.MessageResponse;
 import com.bikeexchange.model.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
+
+    String RESPONSE_SELECT = "SELECT new com.bikeexchange.dto.response.MessageResponse(" +
+            "m.id, m.conversation.id, m.sender.id, m.content, m.isRead, m.createdAt) FROM Message m ";
+
     Page<Message> findByConversationIdOrderByCreatedAtDesc(Long conversationId, Pageable pageable);
     List<Message> findByConversationIdOrderByCreatedAtAsc(Long conversationId);
 
     List<Message> findByConversationIdAndIsReadFalseAndSenderIdNot(Long conversationId, Long userId);
+
+    // Newest messages first; the (conversation_id, created_at, id) index serves all three page queries
+    @Query(RESPONSE_SELECT + "WHERE m.conversation.id = :conversationId ORDER BY m.createdAt DESC, m.id DESC")
+    List<MessageResponse> findLatest(@Param("conversationId") Long conversationId, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE m.conversation.id = :conversationId " +
+            "AND (m.createdAt < :beforeAt OR (m.createdAt = :beforeAt AND m.id < :beforeId)) " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    List<MessageResponse> findBefore(@Param("conversationId") Long conversationId,
+                                     @Param("beforeAt") LocalDateTime beforeAt,
+                                     @Param("beforeId") Long beforeId,
+                                     Pageable pageable);
+
+    // Oldest first, for catching up after a reconnect
+    @Query(RESPONSE_SELECT + "WHERE m.conversation.id = :conversationId " +
+            "AND (m.createdAt > :afterAt OR (m.createdAt = :afterAt AND m.id > :afterId)) " +
+            "ORDER BY m.createdAt ASC, m.id ASC")
+    List<MessageResponse> findAfter(@Param("conversationId") Long conversationId,
+                                    @Param("afterAt") LocalDateTime afterAt,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+
+    @Query("SELECT MAX(m.id) FROM Message m WHERE m.conversation.id = :conversationId")
+    Long findLastMessageId(@Param("conversationId") Long conversationId);
+
+    @Query("SELECT m.createdAt FROM Message m WHERE m.id = :id AND m.conversation.id = :conversationId")
+    Optional<LocalDateTime> findCreatedAt(@Param("conversationId") Long conversationId, @Param("id") Long id);
 }
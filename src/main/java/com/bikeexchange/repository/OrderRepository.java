@@ -2,7 +2,9 @@ package com.bikeexchange.repository;
 
 import com.bikeexchange.model.Order;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,7 +15,8 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>,
+        OrderRepositoryCustom {
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT o FROM Order o WHERE o.id = :id")
@@ -37,9 +40,56 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.status = 'DELIVERED' AND o.deliveredAt < :deadline")
     List<Order> findExpiredDeliveredOrders(@Param("deadline") LocalDateTime deadline);
 
+    // Keyset batch of (id, deliveredAt) for the auto-completion job, oldest first
+    @Query("SELECT o.id, o.deliveredAt FROM Order o WHERE o.status = 'DELIVERED' AND o.deliveredAt < :deadline " +
+            "AND (o.deliveredAt > :afterDeliveredAt OR (o.deliveredAt = :afterDeliveredAt AND o.id > :afterId)) " +
+            "ORDER BY o.deliveredAt, o.id")
+    List<Object[]> findExpiredDeliveredOrderKeys(@Param("deadline") LocalDateTime deadline,
+                                                 @Param("afterDeliveredAt") LocalDateTime afterDeliveredAt,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+
+    @Query("SELECT MIN(o.deliveredAt) FROM Order o WHERE o.status = 'DELIVERED' AND o.deliveredAt < :deadline")
+    LocalDateTime findOldestExpiredDeliveredAt(@Param("deadline") LocalDateTime deadline);
+
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.status = 'DELIVERED' AND o.deliveredAt < :deadline")
+    long countExpiredDeliveredOrders(@Param("deadline") LocalDateTime deadline);
+
+    // Keyset batch of (id, createdAt) for ESCROWED orders the seller did not accept in time, oldest first
+    @Query("SELECT o.id, o.createdAt FROM Order o WHERE o.status = 'ESCROWED' AND o.createdAt < :deadline " +
+            "AND (o.createdAt > :afterAt OR (o.createdAt = :afterAt AND o.id > :afterId)) " +
+            "ORDER BY o.createdAt, o.id")
+    List<Object[]> findUnacceptedOrderKeys(@Param("deadline") LocalDateTime deadline,
+                                           @Param("afterAt") LocalDateTime afterAt,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+
+    // Keyset batch of (id, acceptedAt) for ACCEPTED orders the seller did not ship in time, oldest first
+    @Query("SELECT o.id, o.acceptedAt FROM Order o WHERE o.status = 'ACCEPTED' AND o.acceptedAt < :deadline " +
+            "AND (o.acceptedAt > :afterAt OR (o.acceptedAt = :afterAt AND o.id > :afterId)) " +
+            "ORDER BY o.acceptedAt, o.id")
+    List<Object[]> findUnshippedOrderKeys(@Param("deadline") LocalDateTime deadline,
+                                          @Param("afterAt") LocalDateTime afterAt,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    // Claims the row unless another transaction holds it; empty means someone else is on it
+    @Query(value = "SELECT * FROM orders WHERE id = :id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<Order> findByIdForUpdateSkipLocked(@Param("id") Long id);
+
     @Query("SELECT o FROM Order o WHERE o.status IN :statuses")
     List<Order> findByStatusIn(@Param("statuses") List<Order.OrderStatus> statuses);
 
     @Query("SELECT SUM(o.amountPoints) FROM Order o WHERE o.status IN :statuses")
     Long sumAmountByStatusIn(@Param("statuses") List<Order.OrderStatus> statuses);
+
+    @Query("SELECT o.status AS key, COUNT(o) AS total, COALESCE(SUM(o.amountPoints), 0) AS amount FROM Order o GROUP BY o.status")
+    List<com.bikeexchange.dto.response.GroupAmount> aggregateByStatus();
+
+    // FLOOR(x + 0.5) rounds half up like Math.round on the per-row fees; MySQL ROUND on a DOUBLE rounds half to even
+    @Query("SELECT o.status AS key, COUNT(o) AS total, " +
+            "COALESCE(SUM(CAST(FLOOR(o.amountPoints * :rate + 0.5) AS Long)), 0) AS amount " +
+            "FROM Order o WHERE o.status = :status GROUP BY o.status")
+    List<com.bikeexchange.dto.response.GroupAmount> aggregateCommissionByStatus(@Param("status") Order.OrderStatus status,
+                                                                               @Param("rate") double rate);
 }
@@ -0,0 +1,17 @@
+package com.bikeexchange.repository;
+
+import com.bikeexchange.model.Order;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * One keyset page of orders with buyer, bike and seller fetched, ordered by
+     * {@code sortField} then id. Rows after ({@code afterSortKey}, {@code afterId}) in that
+     * order are returned; both null for the first page.
+     */
+    List<Order> findPage(Specification<Order> filters, String sortField, boolean ascending,
+                         Object afterSortKey, Long afterId, int limit);
+}
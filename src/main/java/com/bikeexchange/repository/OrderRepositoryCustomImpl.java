@@ -0,0 +1,63 @@
+package com.bikeexchange.repository;
+
+import com.bikeexchange.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public List<Order> findPage(Specification<Order> filters, String sortField, boolean ascending,
+                                Object afterSortKey, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Order> query = cb.createQuery(Order.class);
+        Root<Order> root = query.from(Order.class);
+        // To-one fetches only, so the row limit is applied by the database
+        root.fetch("buyer", JoinType.LEFT);
+        Fetch<Object, Object> bike = root.fetch("bike", JoinType.LEFT);
+        bike.fetch("seller", JoinType.LEFT);
+
+        Expression<Long> id = root.get("id");
+        Expression sortKey = root.get(sortField);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filters != null) {
+            Predicate filter = filters.toPredicate(root, query, cb);
+            if (filter != null) {
+                predicates.add(filter);
+            }
+        }
+        if (afterSortKey != null && afterId != null) {
+            Comparable after = (Comparable) afterSortKey;
+            predicates.add(ascending
+                    ? cb.or(cb.greaterThan(sortKey, after),
+                            cb.and(cb.equal(sortKey, after), cb.greaterThan(id, afterId)))
+                    : cb.or(cb.lessThan(sortKey, after),
+                            cb.and(cb.equal(sortKey, after), cb.lessThan(id, afterId))));
+        }
+
+        query.select(root)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(ascending ? cb.asc(sortKey) : cb.desc(sortKey),
+                        ascending ? cb.asc(id) : cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
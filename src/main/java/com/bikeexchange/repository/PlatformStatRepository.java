@@ -0,0 +1,23 @@
+package com.bikeexchange.repository;
+
+import com.bikeexchange.dto.response.GroupCount;
+import com.bikeexchange.model.PlatformStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PlatformStatRepository extends JpaRepository<PlatformStat, PlatformStat.Key> {
+
+    @Query("SELECT s.statKey AS key, SUM(s.value) AS total FROM PlatformStat s GROUP BY s.statKey")
+    List<GroupCount> sumByKey();
+
+    @Modifying
+    @Query(value = "INSERT INTO platform_stats (stat_key, slot, stat_value, updated_at) VALUES (:key, 0, :delta, NOW()) " +
+            "ON DUPLICATE KEY UPDATE stat_value = stat_value + :delta, updated_at = NOW()", nativeQuery = true)
+    int addToCounter(@Param("key") String key, @Param("delta") long delta);
+}
@@ -29,6 +29,8 @@ public interface PointTransactionRepository extends JpaRepository<PointTransacti
         java.util.List<PointTransaction> findByStatusInOrderByCreatedAtDesc(
                         java.util.List<PointTransaction.TransactionStatus> statuses);
 
+        long countByTypeAndStatus(PointTransaction.TransactionType type, PointTransaction.TransactionStatus status);
+
         @org.springframework.data.jpa.repository.Query("SELECT SUM(t.amount) FROM PointTransaction t WHERE t.type = :type AND t.status = :status")
         Long sumAmountByTypeAndStatus(@org.springframework.data.repository.query.Param("type") PointTransaction.TransactionType type,
                         @org.springframework.data.repository.query.Param("status") PointTransaction.TransactionStatus status);
@@ -17,4 +17,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     org.springframework.data.domain.Page<User> findByEmailContainingIgnoreCase(String email,
             org.springframework.data.domain.Pageable pageable);
+
+    @org.springframework.data.jpa.repository.Query("SELECT u.role AS key, COUNT(u) AS total FROM User u GROUP BY u.role")
+    java.util.List<com.bikeexchange.dto.response.GroupCount> countGroupByRole();
 }
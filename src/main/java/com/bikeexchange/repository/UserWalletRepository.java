@@ -1,22 +1,13 @@
 package com.bikeexchange.repository;
 
 import com.bikeexchange.model.UserWallet;
-import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
-
 @Repository
 public interface UserWalletRepository extends JpaRepository<UserWallet, Long> {
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT w FROM UserWallet w WHERE w.userId = :userId")
-    Optional<UserWallet> findByUserIdForUpdate(@Param("userId") Long userId);
-
     @Query("SELECT SUM(w.availablePoints) FROM UserWallet w")
     Long sumTotalAvailablePoints();
 
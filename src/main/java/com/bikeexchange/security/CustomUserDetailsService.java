@@ -2,6 +2,7 @@ package com.bikeexchange.security;
 
 import com.bikeexchange.model.User;
 import com.bikeexchange.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,6 +15,9 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
@@ -27,4 +31,45 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
         return UserPrincipal.create(user);
     }
+
+    /**
+     * Principal from the principal cache, loading and caching the user row on a miss.
+     */
+    public UserPrincipal loadCachedUserById(Long id) {
+        UserPrincipal cached = userPrincipalCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        UserPrincipal principal = (UserPrincipal) loadUserById(id);
+        userPrincipalCache.put(principal);
+        return principal;
+    }
+
+    /**
+     * Resolves the principal for verified token claims from the principal cache, falling
+     * back to the token's role/status claims when the cache allows it, then the database.
+     */
+    public UserDetails loadUserByToken(Claims claims) {
+        Long id = Long.parseLong(claims.getSubject());
+        if (!userPrincipalCache.isEnabled()) {
+            return loadUserById(id);
+        }
+        UserPrincipal cached = userPrincipalCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        UserPrincipal principal;
+        String role = claims.get(JwtTokenProvider.CLAIM_ROLE, String.class);
+        String status = claims.get(JwtTokenProvider.CLAIM_STATUS, String.class);
+        String email = claims.get(JwtTokenProvider.CLAIM_EMAIL, String.class);
+        boolean claimsUsable = role != null && status != null && claims.getIssuedAt() != null
+                && userPrincipalCache.canTrustClaims(id, claims.getIssuedAt().getTime());
+        if (claimsUsable) {
+            principal = UserPrincipal.fromClaims(id, email, role, status);
+        } else {
+            principal = (UserPrincipal) loadUserById(id);
+        }
+        userPrincipalCache.put(principal);
+        return principal;
+    }
 }
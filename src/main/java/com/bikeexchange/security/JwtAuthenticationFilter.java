@@ -1,5 +1,6 @@
 package com.bikeexchange.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -36,14 +37,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             log.debug("=== JWT Filter === URI: {} | Token present: {}", request.getRequestURI(), jwt != null);
 
             if (StringUtils.hasText(jwt)) {
-                boolean isValid = tokenProvider.validateToken(jwt);
-                log.debug("=== JWT Filter === Token valid: {}", isValid);
+                Claims claims = tokenProvider.parseClaims(jwt);
+                log.debug("=== JWT Filter === Token valid: {}", claims != null);
 
-                if (isValid) {
-                    Long userId = tokenProvider.getUserIdFromJWT(jwt);
-                    log.debug("=== JWT Filter === User ID from token: {}", userId);
+                if (claims != null) {
+                    log.debug("=== JWT Filter === User ID from token: {}", claims.getSubject());
 
-                    UserDetails userDetails = customUserDetailsService.loadUserById(userId);
+                    UserDetails userDetails = customUserDetailsService.loadUserByToken(claims);
                     log.debug("=== JWT Filter === User loaded: {} | Enabled: {} | Authorities: {}",
                             userDetails.getUsername(), userDetails.isEnabled(), userDetails.getAuthorities());
 
@@ -0,0 +1,20 @@
+package com.bikeexchange.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/**
+ * Authentication attached to a STOMP session. Its name is the user id, so user
+ * destinations addressed with {@code convertAndSendToUser(userId, ...)} reach the session
+ * (the default name would be the email).
+ */
+public class StompAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    public StompAuthenticationToken(UserPrincipal principal) {
+        super(principal, null, principal.getAuthorities());
+    }
+
+    @Override
+    public String getName() {
+        return String.valueOf(((UserPrincipal) getPrincipal()).getId());
+    }
+}
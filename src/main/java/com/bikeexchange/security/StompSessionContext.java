@@ -0,0 +1,92 @@
+package com.bikeexchange.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-connection state built at STOMP CONNECT and kept in the session attributes: the
+ * authenticated principal and the conversations this connection is known to belong to,
+ * so chat frames are authorised without loading the user or the conversation.
+ *
+ * The principal is re-checked when {@link UserPrincipalCache} reports a change to the user
+ * (lock, unlock, role change) and otherwise every {@code app.chat.session.revalidate-ms};
+ * re-checking drops the cached memberships.
+ */
+public class StompSessionContext {
+
+    public static final String ATTRIBUTE = StompSessionContext.class.getName();
+
+    private static final int MAX_CONVERSATIONS = 256;
+
+    private final Long userId;
+
+    private final Map<Long, Membership> memberships = new ConcurrentHashMap<>();
+
+    private volatile UserPrincipal principal;
+
+    private volatile long validatedAt;
+
+    public StompSessionContext(UserPrincipal principal) {
+        this.userId = principal.getId();
+        refresh(principal);
+    }
+
+    public static StompSessionContext from(Map<String, Object> sessionAttributes) {
+        if (sessionAttributes == null) {
+            return null;
+        }
+        Object context = sessionAttributes.get(ATTRIBUTE);
+        return context instanceof StompSessionContext stompContext ? stompContext : null;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public UserPrincipal getPrincipal() {
+        return principal;
+    }
+
+    public long getValidatedAt() {
+        return validatedAt;
+    }
+
+    /**
+     * Same rule as HTTP ({@link UserPrincipal#isEnabled}): users who are no longer ACTIVE
+     * keep their socket until it closes but may not send.
+     */
+    public boolean canSend() {
+        return principal.isEnabled();
+    }
+
+    public void refresh(UserPrincipal principal) {
+        this.principal = principal;
+        this.validatedAt = System.currentTimeMillis();
+        memberships.clear();
+    }
+
+    public Membership getMembership(Long conversationId) {
+        return memberships.get(conversationId);
+    }
+
+    public void putMembership(Long conversationId, Membership membership) {
+        if (memberships.size() >= MAX_CONVERSATIONS) {
+            memberships.clear();
+        }
+        memberships.put(conversationId, membership);
+    }
+
+    /**
+     * The two participants of a conversation.
+     */
+    public record Membership(Long buyerId, Long sellerId) {
+
+        public boolean isBuyer(Long userId) {
+            return buyerId.equals(userId);
+        }
+
+        public Long recipientOf(Long senderId) {
+            return isBuyer(senderId) ? sellerId : buyerId;
+        }
+    }
+}
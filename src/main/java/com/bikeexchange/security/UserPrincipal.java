@@ -46,6 +46,17 @@ public class UserPrincipal implements UserDetails {
                 user.getLockReason(),
                 Collections.singletonList(authority));
     }
+
+    /**
+     * Principal rebuilt from the claims of a token issued by {@link JwtTokenProvider};
+     * profile fields (name, phone, password) are not carried in the token.
+     */
+    public static UserPrincipal fromClaims(Long id, String email, String role, String status) {
+        GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role);
+        return new UserPrincipal(id, email, null, null, role, null, status, null,
+                Collections.singletonList(authority));
+    }
+
     public String getLockReason() {
         return lockReason;
     }
@@ -66,6 +77,10 @@ public class UserPrincipal implements UserDetails {
         return role;
     }
 
+    public String getStatus() {
+        return status;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
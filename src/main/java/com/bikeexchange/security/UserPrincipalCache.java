@@ -0,0 +1,135 @@
+package com.bikeexchange.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, expiring cache of authenticated principals keyed by user id, so requests
+ * carrying a JWT do not load the user row every time.
+ *
+ * Anything that changes a user's role or status must call {@link #evict}. Entries expire
+ * after {@code ttl-ms}, which bounds staleness for changes made on another instance.
+ *
+ * With {@code trust-token-claims} a cache miss is served from the role/status claims in the
+ * token instead of the database. Eviction remembers when the user changed, and tokens issued
+ * before that (or before this instance started, when that history was lost) are not trusted.
+ * Changes made on another instance are not seen by this check, so only enable it for a
+ * single instance or when token lifetime is an acceptable staleness bound.
+ */
+@Component
+public class UserPrincipalCache {
+
+    @Value("${app.security.principal-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.security.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.security.principal-cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${app.security.principal-cache.trust-token-claims:false}")
+    private boolean trustTokenClaims;
+
+    @Value("${app.jwtExpirationMs}")
+    private long jwtExpirationMs;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final long startedAt = System.currentTimeMillis();
+
+    // userId -> time of the last role/status change, kept for the lifetime of a token
+    private final Map<Long, Long> changedAt = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public UserPrincipal get(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(userId, entry);
+            return null;
+        }
+        return entry.principal();
+    }
+
+    public void put(UserPrincipal principal) {
+        if (!enabled) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            prune();
+        }
+        entries.put(principal.getId(), new Entry(principal, System.currentTimeMillis() + ttlMs));
+    }
+
+    /**
+     * Whether role/status claims of a token issued at the given time can stand in for the
+     * user row: the mode is on and no change to the user is known since the token was issued.
+     */
+    public boolean canTrustClaims(Long userId, long issuedAtMillis) {
+        if (!trustTokenClaims || issuedAtMillis < startedAt) {
+            return false;
+        }
+        Long changed = changedAt.get(userId);
+        return changed == null || changed < issuedAtMillis;
+    }
+
+    /**
+     * Whether the user was evicted (role/status change) after the given time, as far as
+     * this instance knows.
+     */
+    public boolean changedSince(Long userId, long sinceMillis) {
+        Long changed = changedAt.get(userId);
+        return changed != null && changed >= sinceMillis;
+    }
+
+    /**
+     * Drops the cached principal. Inside a transaction the eviction is repeated after commit,
+     * so a concurrent request cannot re-cache the old row in between.
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        doEvict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    doEvict(userId);
+                }
+            });
+        }
+    }
+
+    private void doEvict(Long userId) {
+        changedAt.put(userId, System.currentTimeMillis());
+        entries.remove(userId);
+    }
+
+    private void prune() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        changedAt.values().removeIf(changed -> changed + jwtExpirationMs < now);
+        // Still full of live entries: drop arbitrary ones rather than grow without bound
+        Iterator<Long> it = entries.keySet().iterator();
+        while (entries.size() >= maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private record Entry(UserPrincipal principal, long expiresAt) {
+    }
+}
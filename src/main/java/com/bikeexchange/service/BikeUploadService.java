@@ -8,16 +8,19 @@ import com.bikeexchange.model.User;
 import com.bikeexchange.repository.BikeRepository;
 import com.bikeexchange.repository.BrandRepository;
 import com.bikeexchange.repository.UserRepository;
+import com.bikeexchange.service.service.BikeSearchService;
 import com.bikeexchange.exception.ResourceNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -37,15 +40,27 @@ public class BikeUploadService {
     @Autowired
     private CloudinaryService cloudinaryService;
 
+    @Autowired
+    private BikeSearchService bikeSearchService;
+
+    @Autowired
+    private ImageUploadPipeline imageUploadPipeline;
+
+    @Autowired
+    private MediaAssetService mediaAssetService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     /**
      * Create bike with images from seller's upload
      * This method ensures bike is created with seller's location info
+     *
+     * Everything is validated first, then the images are uploaded concurrently without a
+     * transaction, and only once all uploads succeeded is a short transaction opened to
+     * insert the bike and its media. Uploaded images are deleted again if any step fails.
      */
-    @Transactional
     public Bike createBikeWithImages(Long sellerId, BikeCreateRequest request, List<MultipartFile> imageFiles) throws IOException {
-        List<String> uploadedPublicIds = new ArrayList<>();
-
-        try {
         // Get seller
         User seller = userRepository.findById(sellerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Seller not found with ID: " + sellerId));
@@ -55,107 +70,109 @@ public class BikeUploadService {
             throw new IllegalArgumentException("Seller must have a valid address to list bikes");
         }
 
-        // Create bike with seller's address as location
-        Bike bike = new Bike();
-        bike.setSeller(seller);
-        bike.setTitle(request.getTitle());
-        bike.setDescription(request.getDescription());
-
         if (request.getBrandId() == null) {
             throw new IllegalArgumentException("Brand is required");
         }
         Brand brand = brandRepository.findById(request.getBrandId())
             .orElseThrow(() -> new ResourceNotFoundException("Brand not found with ID: " + request.getBrandId()));
-        bike.setBrand(brand);
 
+        List<MultipartFile> validImages = new ArrayList<>();
+        for (MultipartFile imageFile : imageFiles) {
+            if (ImageUploadPipeline.isAcceptableImage(imageFile)) {
+                validImages.add(imageFile);
+            } else {
+                log.warn("Skipping invalid image file: {}", imageFile.getOriginalFilename());
+            }
+        }
+
+        // Validate that at least one image will be uploaded
+        if (validImages.isEmpty()) {
+            throw new IllegalArgumentException("At least one valid image is required to list a bike");
+        }
+
+        // Upload images to Cloudinary with seller folder
+        String cloudinaryFolder = "bikes/seller-" + sellerId;
+        List<ImageUploadPipeline.Upload> uploads = imageUploadPipeline.uploadAll(sellerId, validImages, cloudinaryFolder);
+        // Each upload holds its asset until the listing is saved; reused ones may belong to other listings too
+        Map<String, LocalDateTime> holds = new HashMap<>();
+        Throwable failure = null;
+        for (ImageUploadPipeline.Upload upload : uploads) {
+            if (upload.publicId() != null && !upload.publicId().isBlank() && upload.heldUntil() != null) {
+                holds.put(upload.publicId(), upload.heldUntil());
+            }
+            if (!upload.succeeded() && failure == null) {
+                failure = upload.error();
+            }
+        }
+        if (failure != null) {
+            mediaAssetService.releaseHolds(sellerId, holds);
+            if (failure instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Image upload failed", failure);
+        }
+
+        Bike savedBike;
+        try {
+            savedBike = transactionTemplate.execute(status -> saveBike(seller, brand, request, uploads));
+        } catch (RuntimeException e) {
+            mediaAssetService.releaseHolds(sellerId, holds);
+            throw e;
+        }
+        // The listing now references its images, the holds are no longer needed
+        mediaAssetService.releaseHolds(sellerId, holds);
+
+        log.info("Bike created with location from seller {}: {} - Address: {}, Images: {}",
+                sellerId, request.getTitle(), seller.getAddress(), savedBike.getMedia().size());
+
+        return savedBike;
+    }
+
+    private Bike saveBike(User seller, Brand brand, BikeCreateRequest request, List<ImageUploadPipeline.Upload> uploads) {
+        // Create bike with seller's address as location
+        Bike bike = new Bike();
+        bike.setSeller(seller);
+        bike.setTitle(request.getTitle());
+        bike.setDescription(request.getDescription());
+        bike.setBrand(brand);
         bike.setModel(request.getModel());
         bike.setYear(request.getYear());
         bike.setPricePoints(request.getPricePoints());
         bike.setCondition(request.getCondition());
         bike.setBikeType(request.getBikeType());
         bike.setFrameSize(request.getFrameSize());
-        
+
         // Set location from seller's address
         bike.setLocation(seller.getAddress());
-        
+
         bike.setStatus(Bike.BikeStatus.ACTIVE);
         bike.setInspectionStatus(Bike.InspectionStatus.NONE);
         bike.setCreatedAt(LocalDateTime.now());
         bike.setMileage(0);
         bike.setViews(0);
 
-        // Upload images to Cloudinary with seller folder
-        String cloudinaryFolder = "bikes/seller-" + sellerId;
         int sortOrder = 0;
-
-        for (MultipartFile imageFile : imageFiles) {
-            if (imageFile.isEmpty() || imageFile.getSize() > 5 * 1024 * 1024) {
-                log.warn("Skipping invalid image file: {}", imageFile.getOriginalFilename());
-                continue;
-            }
-
-            String contentType = imageFile.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                log.warn("Skipping non-image file: {}", imageFile.getOriginalFilename());
-                continue;
-            }
-
-            try {
-                // Upload to Cloudinary
-                Map<String, Object> uploadResult = cloudinaryService.uploadFile(imageFile, cloudinaryFolder);
-                String publicId = (String) uploadResult.get("public_id");
-                if (publicId != null && !publicId.isBlank()) {
-                    uploadedPublicIds.add(publicId);
-                }
-
-                // Create BikeMedia entry with Cloudinary URL
-                BikeMedia bikeMedia = new BikeMedia();
-                bikeMedia.setBike(bike);
-                bikeMedia.setUrl((String) uploadResult.get("secure_url"));
-                // Note: publicId can be added to BikeMedia if deletion feature is needed later
-                bikeMedia.setType(BikeMedia.MediaType.IMAGE);
-                bikeMedia.setSortOrder(sortOrder++);
-
-                bike.getMedia().add(bikeMedia);
-
-                log.info("Image uploaded for bike from seller {}: {} (Size: {} bytes)",
-                        sellerId, imageFile.getOriginalFilename(), imageFile.getSize());
-
-            } catch (IOException e) {
-                log.error("Failed to upload image {}: {}", imageFile.getOriginalFilename(), e.getMessage());
-                throw e;
-            }
+        for (ImageUploadPipeline.Upload upload : uploads) {
+            // Create BikeMedia entry with Cloudinary URL
+            BikeMedia bikeMedia = new BikeMedia();
+            bikeMedia.setBike(bike);
+            bikeMedia.setUrl(upload.secureUrl());
+            bikeMedia.setPublicId(upload.publicId());
+            bikeMedia.setType(BikeMedia.MediaType.IMAGE);
+            bikeMedia.setSortOrder(sortOrder++);
+            bike.getMedia().add(bikeMedia);
+
+            log.info("Image uploaded for bike from seller {}: {} (Size: {} bytes)",
+                    seller.getId(), upload.file().getOriginalFilename(), upload.file().getSize());
         }
 
-        // Validate that at least one image was uploaded
-        if (bike.getMedia().isEmpty()) {
-            throw new IllegalArgumentException("At least one valid image is required to list a bike");
-        }
-
-        // Set featured image (first one)
-        Bike savedBike = bikeRepository.save(bike);
-        
-        log.info("Bike created with location from seller {}: {} - Address: {}, Images: {}", 
-                sellerId, request.getTitle(), seller.getAddress(), savedBike.getMedia().size());
-
-        return savedBike;
-        } catch (IOException | RuntimeException e) {
-            if (!uploadedPublicIds.isEmpty()) {
-                cleanupUploadedFiles(uploadedPublicIds, sellerId);
-            }
-            throw e;
-        }
-    }
-
-    private void cleanupUploadedFiles(List<String> publicIds, Long sellerId) {
-        for (String publicId : publicIds) {
-            try {
-                cloudinaryService.deleteFile(publicId);
-                log.info("Rolled back uploaded image for seller {}: {}", sellerId, publicId);
-            } catch (IOException cleanupError) {
-                log.warn("Failed to rollback Cloudinary image {} for seller {}: {}", publicId, sellerId, cleanupError.getMessage());
-            }
-        }
+        bikeSearchService.index(bike);
+        Bike saved = bikeRepository.save(bike);
+        mediaAssetService.retain(seller.getId(), saved.getMedia().stream().map(BikeMedia::getPublicId).toList());
+        return saved;
     }
 
     /**
@@ -1,13 +1,24 @@
 package com.bikeexchange.service;
 
+import com.bikeexchange.util.ImageVariants;
 import com.cloudinary.Cloudinary;
+import com.cloudinary.Transformation;
 import com.cloudinary.utils.ObjectUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.Map;
 
 @Slf4j
@@ -19,29 +30,77 @@ public class CloudinaryService {
 
     /**
      * Upload file to Cloudinary
+     * The part is streamed to a temporary file and uploaded from disk, so the image is
+     * never held on heap as a byte array.
      * @param file MultipartFile to upload
      * @param folder Folder in Cloudinary (e.g., "bikes", "profiles")
      * @return Map with upload response containing url and public_id
      * @throws IOException if upload fails
      */
     public Map<String, Object> uploadFile(MultipartFile file, String folder) throws IOException {
-        if (file.isEmpty()) {
-            throw new IllegalArgumentException("File is empty");
+        try (StagedFile staged = stage(file)) {
+            return uploadFile(staged.path().toFile(), folder);
         }
+    }
 
+    /**
+     * Upload a file from disk to Cloudinary
+     * @param file File to upload
+     * @param folder Folder in Cloudinary
+     * @return Map with upload response containing url and public_id
+     * @throws IOException if upload fails
+     */
+    public Map<String, Object> uploadFile(File file, String folder) throws IOException {
         try {
             Map<String, Object> uploadParams = ObjectUtils.asMap(
                     "folder", folder,
                     "resource_type", "auto"
             );
 
-            return cloudinary.uploader().upload(file.getBytes(), uploadParams);
+            return cloudinary.uploader().upload(file, uploadParams);
         } catch (IOException e) {
             log.error("Error uploading file to Cloudinary: {}", e.getMessage(), e);
             throw e;
         }
     }
 
+    /**
+     * Copy a part to a temporary file, computing its SHA-256 on the way
+     * @param file MultipartFile to stage
+     * @return Staged copy; closing it deletes the temporary file
+     * @throws IOException if the part cannot be read
+     */
+    public StagedFile stage(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        Path tempFile = Files.createTempFile("cloudinary-upload-", ".tmp");
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return new StagedFile(tempFile, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Temporary copy of an upload and the hex SHA-256 of its content.
+     */
+    public record StagedFile(Path path, String sha256) implements AutoCloseable {
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
     /**
      * Upload file from URL to Cloudinary
      * @param fileUrl URL of the file to upload
@@ -92,14 +151,25 @@ public class CloudinaryService {
     /**
      * Get optimized image URL with transformations
      * @param publicId Public ID of the image
+     * @param variant Size to deliver (thumbnail, card or full)
+     * @return Secure HTTPS URL of the transformed image
+     */
+    public String getVariantUrl(String publicId, ImageVariants.Variant variant) {
+        if (publicId == null || publicId.isBlank()) {
+            return null;
+        }
+        return cloudinary.url()
+                .secure(true)
+                .transformation(new Transformation<>().rawTransformation(variant.getTransformation()))
+                .generate(publicId);
+    }
+
     /**
      * Get thumbnail URL
      * @param publicId Public ID of the image
-     * @return Thumbnail URL placeholder
+     * @return Thumbnail URL
      */
     public String getThumbnailUrl(String publicId) {
-        // TODO: Implement image optimization with Cloudinary transformation API
-        // For now, return the public ID
-        return publicId;
+        return getVariantUrl(publicId, ImageVariants.Variant.THUMBNAIL);
     }
 }
@@ -0,0 +1,138 @@
+package com.bikeexchange.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploads a batch of images to Cloudinary concurrently.
+ *
+ * Uploads run on a small bounded pool owned by this service (not a bean, so @Async keeps
+ * Spring's default executor). When the pool and its queue are full the request thread
+ * uploads itself, which throttles callers instead of queueing without bound. The caller
+ * waits for the whole batch, so multipart parts stay valid while they are read.
+ */
+@Slf4j
+@Service
+public class ImageUploadPipeline {
+
+    public static final long MAX_IMAGE_BYTES = 5 * 1024 * 1024;
+
+    @Autowired
+    private MediaAssetService mediaAssetService;
+
+    @Value("${app.upload.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.upload.queue-capacity:32}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-upload-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Non-empty image of at most 5MB.
+     */
+    public static boolean isAcceptableImage(MultipartFile file) {
+        if (file.isEmpty() || file.getSize() > MAX_IMAGE_BYTES) {
+            return false;
+        }
+        String contentType = file.getContentType();
+        return contentType != null && contentType.startsWith("image/");
+    }
+
+    /**
+     * Uploads every file and waits for all of them. Outcomes are in the order of the input.
+     * Photos the seller already uploaded are not sent again (see {@link MediaAssetService}).
+     */
+    public List<Upload> uploadAll(Long sellerId, List<MultipartFile> files, String folder) {
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return mediaAssetService.uploadOnce(sellerId, file, folder);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+
+        List<Upload> uploads = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            try {
+                uploads.add(new Upload(file, futures.get(i).join(), null));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("Failed to upload {}: {}", file.getOriginalFilename(), cause.getMessage());
+                uploads.add(new Upload(file, null, cause));
+            }
+        }
+        return uploads;
+    }
+
+    /**
+     * Result of one upload: the Cloudinary response, or the error that prevented it.
+     */
+    public record Upload(MultipartFile file, Map<String, Object> result, Throwable error) {
+
+        public boolean succeeded() {
+            return error == null;
+        }
+
+        public String publicId() {
+            return result != null ? (String) result.get("public_id") : null;
+        }
+
+        public String secureUrl() {
+            return result != null ? (String) result.get("secure_url") : null;
+        }
+
+        public boolean deduplicated() {
+            return result != null && Boolean.TRUE.equals(result.get(MediaAssetService.DEDUPLICATED));
+        }
+
+        public LocalDateTime heldUntil() {
+            return result != null ? (LocalDateTime) result.get(MediaAssetService.HELD_UNTIL) : null;
+        }
+
+        public Long bytes() {
+            Object bytes = result != null ? result.get("bytes") : null;
+            return bytes instanceof Number number ? number.longValue() : null;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.bikeexchange.service;
+
+import com.bikeexchange.model.MediaAsset;
+import com.bikeexchange.repository.MediaAssetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Content-addressed registry of seller images (media_assets).
+ *
+ * Each upload is hashed while it is staged to disk. If the seller already has an image
+ * with that SHA-256, its Cloudinary asset is returned and nothing is sent over the network.
+ * Listings retain the assets their media rows use and release them when the rows go away;
+ * an asset is deleted from Cloudinary only once its reference count is back to zero.
+ * Images uploaded before the registry existed are not tracked and never deleted by it.
+ *
+ * Every upload, fresh or reused, puts a hold on its asset for {@code app.upload.hold-hours}.
+ * The listing that uses the image is saved later, often in another request, so without the
+ * hold a reused photo could be purged when its previous listing is deleted in between.
+ * Purging skips held assets; a failed listing save releases its holds.
+ */
+@Slf4j
+@Service
+public class MediaAssetService {
+
+    public static final String DEDUPLICATED = "deduplicated";
+    public static final String HELD_UNTIL = "held_until";
+
+    @Autowired
+    private MediaAssetRepository mediaAssetRepository;
+
+    @Autowired
+    private CloudinaryService cloudinaryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.upload.hold-hours:24}")
+    private long holdHours;
+
+    /**
+     * Uploads the file unless the seller already has the same content.
+     * @return Cloudinary-style result (public_id, secure_url, bytes) plus {@value #DEDUPLICATED}
+     *         and {@value #HELD_UNTIL}
+     */
+    public Map<String, Object> uploadOnce(Long sellerId, MultipartFile file, String folder) throws IOException {
+        try (CloudinaryService.StagedFile staged = cloudinaryService.stage(file)) {
+            LocalDateTime heldUntil = LocalDateTime.now().plusHours(holdHours);
+            Optional<MediaAsset> existing = mediaAssetRepository.findBySellerIdAndSha256(sellerId, staged.sha256());
+            if (existing.isPresent() && hold(existing.get(), heldUntil)) {
+                log.info("Reusing image {} for seller {} (same content)", existing.get().getPublicId(), sellerId);
+                return asResult(existing.get(), true, heldUntil);
+            }
+            // Not stored yet, or purged since it was read
+            Map<String, Object> result = cloudinaryService.uploadFile(staged.path().toFile(), folder);
+            return register(sellerId, staged.sha256(), result, heldUntil);
+        }
+    }
+
+    private boolean hold(MediaAsset asset, LocalDateTime heldUntil) {
+        Integer held = transactionTemplate.execute(status ->
+                mediaAssetRepository.hold(asset.getId(), heldUntil, LocalDateTime.now()));
+        return held != null && held > 0;
+    }
+
+    private Map<String, Object> register(Long sellerId, String sha256, Map<String, Object> uploadResult,
+                                         LocalDateTime heldUntil) {
+        String publicId = (String) uploadResult.get("public_id");
+        String secureUrl = (String) uploadResult.get("secure_url");
+        Object bytes = uploadResult.get("bytes");
+        Integer inserted = transactionTemplate.execute(status -> mediaAssetRepository.insertIfAbsent(sellerId, sha256,
+                publicId, secureUrl, bytes instanceof Number number ? number.longValue() : null, heldUntil,
+                LocalDateTime.now()));
+
+        if (inserted != null && inserted > 0) {
+            Map<String, Object> result = new HashMap<>(uploadResult);
+            result.put(DEDUPLICATED, false);
+            result.put(HELD_UNTIL, heldUntil);
+            return result;
+        }
+        // Another request stored the same photo meanwhile: keep theirs, drop ours
+        MediaAsset winner = mediaAssetRepository.findBySellerIdAndSha256(sellerId, sha256)
+                .filter(asset -> hold(asset, heldUntil))
+                .orElseThrow(() -> new IllegalStateException("Media asset vanished during registration"));
+        destroyQuietly(publicId);
+        return asResult(winner, true, heldUntil);
+    }
+
+    private static Map<String, Object> asResult(MediaAsset asset, boolean deduplicated, LocalDateTime heldUntil) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("public_id", asset.getPublicId());
+        result.put("secure_url", asset.getSecureUrl());
+        result.put("bytes", asset.getBytes());
+        result.put(DEDUPLICATED, deduplicated);
+        result.put(HELD_UNTIL, heldUntil);
+        return result;
+    }
+
+    /**
+     * Drops the holds of uploads whose listing was not saved and purges those assets if no
+     * listing uses them. A hold that a later upload extended is left in place.
+     */
+    public void releaseHolds(Long sellerId, Map<String, LocalDateTime> heldUntilByPublicId) {
+        for (Map.Entry<String, LocalDateTime> hold : new TreeMap<>(heldUntilByPublicId).entrySet()) {
+            transactionTemplate.execute(status -> mediaAssetRepository.releaseHold(sellerId, hold.getKey(),
+                    hold.getValue(), LocalDateTime.now()));
+        }
+        purgeUnreferenced(heldUntilByPublicId.keySet());
+    }
+
+    /**
+     * Counts one reference per occurrence of each public id. Null ids, untracked images and
+     * other sellers' images are ignored.
+     */
+    @Transactional
+    public void retain(Long sellerId, Collection<String> publicIds) {
+        LocalDateTime now = LocalDateTime.now();
+        countOccurrences(publicIds).forEach((publicId, count) -> mediaAssetRepository.retain(sellerId, publicId, count, now));
+    }
+
+    /**
+     * Drops references; assets left without any are deleted after the transaction commits.
+     */
+    @Transactional
+    public void release(Long sellerId, Collection<String> publicIds) {
+        Map<String, Integer> counts = countOccurrences(publicIds);
+        if (counts.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        counts.forEach((publicId, count) -> mediaAssetRepository.release(sellerId, publicId, count, now));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                purgeUnreferenced(counts.keySet());
+            }
+        });
+    }
+
+    /**
+     * Deletes assets that no listing references and no pending upload holds.
+     */
+    public void purgeUnreferenced(Collection<String> publicIds) {
+        for (String publicId : new TreeSet<>(publicIds)) {
+            Integer deleted = transactionTemplate.execute(status ->
+                    mediaAssetRepository.deleteIfUnreferencedAndUnheld(publicId, LocalDateTime.now()));
+            if (deleted != null && deleted > 0) {
+                destroyQuietly(publicId);
+            }
+        }
+    }
+
+    /**
+     * Explicit delete by a user. Registered assets must belong to the user and be unused;
+     * untracked (older) images are deleted as before.
+     */
+    public void delete(Long userId, String publicId) throws IOException {
+        Optional<MediaAsset> asset = mediaAssetRepository.findFirstByPublicId(publicId);
+        if (asset.isPresent()) {
+            if (!asset.get().getSellerId().equals(userId)) {
+                throw new IllegalArgumentException("Only the seller who uploaded this image can delete it");
+            }
+            Integer deleted = transactionTemplate.execute(status -> mediaAssetRepository.deleteIfUnreferenced(publicId));
+            if (deleted == null || deleted == 0) {
+                throw new IllegalStateException("Image is still used by a bike listing");
+            }
+        }
+        cloudinaryService.deleteFile(publicId);
+    }
+
+    private void destroyQuietly(String publicId) {
+        try {
+            cloudinaryService.deleteFile(publicId);
+            log.info("Deleted unreferenced image {}", publicId);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to delete Cloudinary image {}: {}", publicId, e.getMessage());
+        }
+    }
+
+    // Sorted so concurrent transactions update registry rows in the same order
+    private static Map<String, Integer> countOccurrences(Collection<String> publicIds) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (String publicId : publicIds) {
+            if (publicId != null && !publicId.isBlank()) {
+                counts.merge(publicId, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+}
@@ -3,7 +3,10 @@ package com.bikeexchange.service.service;
 import com.bikeexchange.dto.response.*;
 import com.bikeexchange.model.*;
 import com.bikeexchange.repository.*;
+import com.bikeexchange.util.TtlSnapshot;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -42,65 +45,116 @@ public class AdminService {
     @Autowired
     private OrderRuleConfigService orderRuleConfigService;
 
+    @Autowired
+    private PlatformStatsService platformStatsService;
+
+    @Autowired
+    private OperationalMetrics operationalMetrics;
+
+    @Value("${app.admin.stats-cache-ttl-ms:10000}")
+    private long statsCacheTtlMs;
+
+    private TtlSnapshot<PlatformAggregates> aggregatesSnapshot;
+
+    @PostConstruct
+    void initSnapshots() {
+        aggregatesSnapshot = new TtlSnapshot<>(statsCacheTtlMs);
+    }
+
+    /**
+     * Dashboard numbers read from the platform_stats counters (a single small query),
+     * shared between admin sessions for a few seconds.
+     */
+    private record PlatformAggregates(Map<String, Long> counters,
+                                      Map<String, Long> usersByRole,
+                                      Map<String, Long> bikesByStatus,
+                                      Map<String, Long> ordersByStatus,
+                                      Map<String, Long> inspectionsByStatus,
+                                      Map<String, Long> disputesByStatus) {
+
+        long counter(String key) {
+            return counters.getOrDefault(key, 0L);
+        }
+    }
+
+    private PlatformAggregates getAggregates() {
+        return aggregatesSnapshot.get(() -> {
+            Map<String, Long> counters = Map.copyOf(platformStatsService.readAll());
+            return new PlatformAggregates(
+                    counters,
+                    Map.copyOf(PlatformStatsService.withPrefix(counters, PlatformStatsService.USER_ROLE)),
+                    Map.copyOf(PlatformStatsService.withPrefix(counters, PlatformStatsService.BIKE_STATUS)),
+                    Map.copyOf(PlatformStatsService.withPrefix(counters, PlatformStatsService.ORDER_STATUS)),
+                    Map.copyOf(PlatformStatsService.withPrefix(counters, PlatformStatsService.INSPECTION_STATUS)),
+                    Map.copyOf(PlatformStatsService.withPrefix(counters, PlatformStatsService.DISPUTE_STATUS)));
+        });
+    }
+
+    private static long total(Map<String, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
     public Map<String, Object> getDashboardMetrics() {
+        PlatformAggregates aggregates = getAggregates();
         Map<String, Object> metrics = new HashMap<>();
 
         // 1. Total Users
-        long totalUsers = userRepository.count();
-        metrics.put("totalUsers", totalUsers);
+        metrics.put("totalUsers", total(aggregates.usersByRole()));
 
         // 2. Total Listings
-        long totalListings = bikeRepository.count();
-        metrics.put("totalListings", totalListings);
+        metrics.put("totalListings", total(aggregates.bikesByStatus()));
 
         // 3. Completed Orders and Revenue
-        List<Order> allOrders = orderRepository.findAll();
-        long completedOrders = 0;
-        long totalCommissionRevenue = 0;
-
-        for (Order order : allOrders) {
-            if (order.getStatus() == Order.OrderStatus.COMPLETED) {
-                completedOrders++;
-                totalCommissionRevenue += (long) (order.getAmountPoints() * 0.05);
-            }
-        }
+        long completedOrders = aggregates.ordersByStatus().getOrDefault(Order.OrderStatus.COMPLETED.name(), 0L);
         metrics.put("totalCompletedOrders", completedOrders);
-        metrics.put("totalCommissionRevenue", totalCommissionRevenue);
+        metrics.put("totalCommissionRevenue", aggregates.counter(PlatformStatsService.ORDER_COMMISSION_POINTS));
 
         // 4. Pending Disputes
-        long pendingDisputes = disputeRepository.findByStatus(Dispute.DisputeStatus.OPEN).size();
-        metrics.put("pendingDisputes", pendingDisputes);
+        metrics.put("pendingDisputes", aggregates.disputesByStatus().getOrDefault(Dispute.DisputeStatus.OPEN.name(), 0L));
 
         // 5. Inspection Statistics
-        List<InspectionRequest> allInspections = inspectionRepository.findAll();
-        long pendingInspections = allInspections.stream()
-                .filter(i -> i.getStatus() == InspectionRequest.RequestStatus.REQUESTED).count();
-        long assignedInspections = allInspections.stream()
-                .filter(i -> i.getStatus() == InspectionRequest.RequestStatus.ASSIGNED).count();
-        long inspectedInspections = allInspections.stream()
-                .filter(i -> i.getStatus() == InspectionRequest.RequestStatus.INSPECTED).count();
-
+        Map<String, Long> inspections = aggregates.inspectionsByStatus();
         Map<String, Long> inspectionStats = new HashMap<>();
-        inspectionStats.put("requested", pendingInspections);
-        inspectionStats.put("assigned", assignedInspections);
-        inspectionStats.put("inspectedWaitApprove", inspectedInspections);
+        inspectionStats.put("requested", inspections.getOrDefault(InspectionRequest.RequestStatus.REQUESTED.name(), 0L));
+        inspectionStats.put("assigned", inspections.getOrDefault(InspectionRequest.RequestStatus.ASSIGNED.name(), 0L));
+        inspectionStats.put("inspectedWaitApprove", inspections.getOrDefault(InspectionRequest.RequestStatus.INSPECTED.name(), 0L));
         metrics.put("inspectionStatistics", inspectionStats);
 
         return metrics;
     }
 
+    public Map<String, Object> getUserStatistics() {
+        Map<String, Long> byRole = getAggregates().usersByRole();
+        return Map.of("total", total(byRole), "byRole", byRole);
+    }
+
+    public Map<String, Object> getBikeStatistics() {
+        Map<String, Long> byStatus = getAggregates().bikesByStatus();
+        return Map.of("total", total(byStatus), "byStatus", byStatus);
+    }
+
+    public Map<String, Object> getOrderStatistics() {
+        Map<String, Long> byStatus = getAggregates().ordersByStatus();
+        return Map.of("total", total(byStatus), "byStatus", byStatus);
+    }
+
     public Map<String, Long> getInspectionMetrics() {
+        Map<String, Long> inspections = getAggregates().inspectionsByStatus();
         Map<String, Long> inspectionStats = new HashMap<>();
-        List<InspectionRequest> allInspections = inspectionRepository.findAll();
-        inspectionStats.put("requested", allInspections.stream()
-                .filter(i -> i.getStatus() == InspectionRequest.RequestStatus.REQUESTED).count());
-        inspectionStats.put("assigned", allInspections.stream()
-                .filter(i -> i.getStatus() == InspectionRequest.RequestStatus.ASSIGNED).count());
-        inspectionStats.put("inspected", allInspections.stream()
-                .filter(i -> i.getStatus() == InspectionRequest.RequestStatus.INSPECTED).count());
+        inspectionStats.put("requested", inspections.getOrDefault(InspectionRequest.RequestStatus.REQUESTED.name(), 0L));
+        inspectionStats.put("assigned", inspections.getOrDefault(InspectionRequest.RequestStatus.ASSIGNED.name(), 0L));
+        inspectionStats.put("inspected", inspections.getOrDefault(InspectionRequest.RequestStatus.INSPECTED.name(), 0L));
         return inspectionStats;
     }
 
+    public Map<String, Object> getStatsReconciliation() {
+        return platformStatsService.getLastReconciliation();
+    }
+
+    public Map<String, Long> getOperationalMetrics() {
+        return operationalMetrics.snapshot();
+    }
+
     public Map<String, Long> getReportMetrics() {
         Map<String, Long> reportStats = new HashMap<>();
         long total = userReportRepository.count();
@@ -121,26 +175,23 @@ public class AdminService {
     public SystemWalletSummaryResponse getSystemWalletSummary() {
         SystemWalletSummaryResponse summary = new SystemWalletSummaryResponse();
 
+        PlatformAggregates aggregates = getAggregates();
+
         // 1. Point Summary from Wallets
-        Long totalAvailable = userWalletRepository.sumTotalAvailablePoints();
-        Long totalFrozen = userWalletRepository.sumTotalFrozenPoints();
-        summary.setTotalSystemAvailablePoints(totalAvailable != null ? totalAvailable : 0L);
-        summary.setTotalSystemFrozenPoints(totalFrozen != null ? totalFrozen : 0L);
+        Long totalAvailable = aggregates.counter(PlatformStatsService.WALLET_AVAILABLE_POINTS);
+        Long totalFrozen = aggregates.counter(PlatformStatsService.WALLET_FROZEN_POINTS);
+        summary.setTotalSystemAvailablePoints(totalAvailable);
+        summary.setTotalSystemFrozenPoints(totalFrozen);
 
         // 2. Escrow Orders (Orders currently holding money)
-        List<Order.OrderStatus> escrowStatuses = List.of(
-            Order.OrderStatus.ESCROWED,
-            Order.OrderStatus.ACCEPTED,
-            Order.OrderStatus.SHIPPED,
-            Order.OrderStatus.DELIVERED,
-            Order.OrderStatus.RETURN_REQUESTED,
-            Order.OrderStatus.DISPUTED
-        );
+        List<Order.OrderStatus> escrowStatuses = PlatformStatsService.ESCROW_ORDER_STATUSES;
         List<Order> escrowOrders = orderRepository.findByStatusIn(escrowStatuses);
-        Long totalEscrowPoints = orderRepository.sumAmountByStatusIn(escrowStatuses);
+        Long totalEscrowPoints = aggregates.counter(PlatformStatsService.ORDER_ESCROW_POINTS);
         
+        // Counts come from the lists they describe; the point totals and the balance check use
+        // the counters, which are one consistent snapshot of platform_stats
         summary.setEscrowOrdersCount(escrowOrders.size());
-        summary.setTotalEscrowPoints(totalEscrowPoints != null ? totalEscrowPoints : 0L);
+        summary.setTotalEscrowPoints(totalEscrowPoints);
         summary.setEscrowOrders(escrowOrders.stream()
             .map(OrderResponse::fromEntity)
             .collect(Collectors.toList()));
@@ -150,29 +201,21 @@ public class AdminService {
             PointTransaction.TransactionType.WITHDRAW,
             PointTransaction.TransactionStatus.PENDING
         );
-        Long totalPendingWithdrawals = pointTransactionRepository.sumAmountByTypeAndStatus(
-            PointTransaction.TransactionType.WITHDRAW,
-            PointTransaction.TransactionStatus.PENDING
-        );
+        Long totalPendingWithdrawals = aggregates.counter(PlatformStatsService.WITHDRAWAL_PENDING_POINTS);
 
         summary.setPendingWithdrawalsCount(pendingWithdrawals.size());
-        summary.setTotalPendingWithdrawalPoints(totalPendingWithdrawals != null ? totalPendingWithdrawals : 0L);
+        summary.setTotalPendingWithdrawalPoints(totalPendingWithdrawals);
         summary.setPendingWithdrawals(pendingWithdrawals.stream()
             .map(PointTransactionDto::from)
             .collect(Collectors.toList()));
 
         // 4. Inspection Summary (Sellers holding money for inspection)
-        List<InspectionRequest.RequestStatus> activeInspectionStatuses = List.of(
-            InspectionRequest.RequestStatus.REQUESTED,
-            InspectionRequest.RequestStatus.ASSIGNED,
-            InspectionRequest.RequestStatus.IN_PROGRESS,
-            InspectionRequest.RequestStatus.INSPECTED
-        );
+        List<InspectionRequest.RequestStatus> activeInspectionStatuses = PlatformStatsService.ACTIVE_INSPECTION_STATUSES;
         List<InspectionRequest> activeInspections = inspectionRepository.findByStatusIn(activeInspectionStatuses);
-        Long totalInspectionFeePoints = inspectionRepository.sumFeePointsByStatusIn(activeInspectionStatuses);
+        Long totalInspectionFeePoints = aggregates.counter(PlatformStatsService.INSPECTION_HELD_FEE_POINTS);
 
         summary.setActiveInspectionsCount(activeInspections.size());
-        summary.setTotalInspectionFeePoints(totalInspectionFeePoints != null ? totalInspectionFeePoints : 0L);
+        summary.setTotalInspectionFeePoints(totalInspectionFeePoints);
         summary.setActiveInspections(activeInspections);
 
         // 4. Verification Logic
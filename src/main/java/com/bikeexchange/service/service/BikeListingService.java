@@ -0,0 +1,56 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.dto.response.BikeResponse;
+import com.bikeexchange.dto.response.BikeSummary;
+import com.bikeexchange.model.Bike;
+import com.bikeexchange.repository.BikeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Second phase of listing reads: turns a page of bike ids into responses with a fixed
+ * number of queries (bikes + brand in one fetch join, then one batch each for media and
+ * categories via @BatchSize). Mapping happens inside the transaction, so it does not depend
+ * on open-in-view or lazy loading outside a session.
+ *
+ * The summary variant skips entities altogether and reads BikeSummary projections.
+ */
+@Service
+public class BikeListingService {
+
+    @Autowired
+    private BikeRepository bikeRepository;
+
+    @Transactional(readOnly = true)
+    public List<BikeResponse> loadResponses(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Bike> byId = bikeRepository.findWithBrandByIdIn(ids).stream()
+                .collect(Collectors.toMap(Bike::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(BikeResponse::fromEntity)
+                .toList();
+    }
+
+    public List<BikeSummary> loadSummaries(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BikeSummary> byId = bikeRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(BikeSummary::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
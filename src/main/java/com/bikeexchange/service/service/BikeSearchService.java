@@ -0,0 +1,200 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.model.Bike;
+import com.bikeexchange.repository.BikeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Keyword search over bike listings.
+ *
+ * Listings carry an accent-folded copy of title, model and brand name in
+ * {@code bikes.search_text}, indexed with a MySQL FULLTEXT index and queried with
+ * MATCH ... AGAINST in boolean mode. Keyword listings are ranked by the match score
+ * (see {@link BikeRepository#findRelevanceKeys}). When full-text search is disabled or the
+ * query has no usable tokens, a LIKE predicate is used instead and results stay in recency order.
+ */
+@Service
+public class BikeSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(BikeSearchService.class);
+
+    private static final String FULLTEXT_INDEX = "ft_bikes_search_text";
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    @Autowired
+    private BikeRepository bikeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.search.fulltext.enabled:true}")
+    private boolean fullTextEnabled;
+
+    // Set once the FULLTEXT index is known to exist; until then searches use LIKE
+    private volatile boolean indexReady;
+
+    // Must match innodb_ft_min_token_size; shorter tokens are never indexed
+    @Value("${app.search.fulltext.min-token-length:3}")
+    private int minTokenLength;
+
+    /**
+     * Folds Vietnamese diacritics and case so that "Xe đạp địa hình" and
+     * "xe dap dia hinh" produce the same tokens.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD);
+        folded = COMBINING_MARKS.matcher(folded).replaceAll("");
+        folded = folded.replace('đ', 'd').replace('Đ', 'D');
+        folded = NON_WORD.matcher(folded).replaceAll(" ");
+        return folded.toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * Refreshes the denormalised search text; call before saving a created or edited bike.
+     */
+    public void index(Bike bike) {
+        String brandName = bike.getBrand() != null ? bike.getBrand().getName() : null;
+        bike.setSearchText(buildSearchText(bike.getTitle(), bike.getModel(), brandName));
+    }
+
+    /**
+     * Rebuilds search_text for every bike of a brand after the brand was renamed. Runs in the
+     * caller's transaction, in id-ordered batches so a large brand does not load all rows at once.
+     */
+    public int reindexBrand(Long brandId, String brandName) {
+        int total = 0;
+        long lastId = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT id, title, model FROM bikes WHERE brand_id = ? AND id > ? ORDER BY id LIMIT " + BACKFILL_BATCH_SIZE,
+                    (rs, rowNum) -> new Object[] {
+                            buildSearchText(rs.getString(2), rs.getString(3), brandName),
+                            rs.getLong(1)
+                    },
+                    brandId, lastId);
+            if (rows.isEmpty()) {
+                break;
+            }
+            jdbcTemplate.batchUpdate("UPDATE bikes SET search_text = ? WHERE id = ?", rows);
+            lastId = (Long) rows.get(rows.size() - 1)[1];
+            total += rows.size();
+        }
+        return total;
+    }
+
+    /**
+     * Boolean-mode query for ranking {@code keyword} by relevance, or null when the FULLTEXT
+     * index cannot serve it (disabled, not built yet, or no token long enough).
+     */
+    public String relevanceQuery(String keyword) {
+        return indexReady ? toBooleanQuery(keyword) : null;
+    }
+
+    /**
+     * Keyword filter usable in a Specification chain. Uses the FULLTEXT index through the
+     * {@code match_against} function when possible, otherwise the LIKE predicate of the old queries.
+     */
+    public Specification<Bike> keywordSpecification(String keyword, boolean allowFullText) {
+        String booleanQuery = toBooleanQuery(keyword);
+        if (allowFullText && indexReady && booleanQuery != null) {
+            return (root, query, cb) -> cb.greaterThan(
+                    cb.function("match_against", Double.class, root.get("searchText"), cb.literal(booleanQuery)),
+                    0.0);
+        }
+        String pattern = "%" + keyword.toLowerCase() + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("brand").get("name")), pattern),
+                cb.like(cb.lower(root.get("model")), pattern),
+                cb.like(cb.lower(root.get("title")), pattern));
+    }
+
+    /**
+     * Turns free text into a boolean-mode query requiring every token as a prefix
+     * ("giant tcr" -> "+giant* +tcr*"). Returns null when no token is long enough to be indexed.
+     */
+    String toBooleanQuery(String keyword) {
+        String normalized = normalize(keyword);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        for (String token : normalized.split(" ")) {
+            if (token.length() >= minTokenLength) {
+                terms.add("+" + token + "*");
+            }
+        }
+        return terms.isEmpty() ? null : String.join(" ", terms);
+    }
+
+    private static String buildSearchText(String title, String model, String brandName) {
+        return String.join(" ", normalize(title), normalize(model), normalize(brandName)).trim();
+    }
+
+    /**
+     * Creates the FULLTEXT index if missing and fills search_text for rows written
+     * before the column existed. Runs once per start, off the startup thread.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        if (!fullTextEnabled) {
+            return;
+        }
+        try {
+            backfillSearchText();
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() " +
+                            "AND table_name = 'bikes' AND index_name = ?",
+                    Integer.class, FULLTEXT_INDEX);
+            if (existing == null || existing == 0) {
+                log.info("Creating full-text index {} on bikes.search_text", FULLTEXT_INDEX);
+                jdbcTemplate.execute("ALTER TABLE bikes ADD FULLTEXT INDEX " + FULLTEXT_INDEX + " (search_text)");
+            }
+            indexReady = true;
+        } catch (RuntimeException e) {
+            log.warn("Could not prepare full-text index, keyword search will use LIKE fallback: {}", e.getMessage());
+        }
+    }
+
+    private void backfillSearchText() {
+        int total = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT b.id, b.title, b.model, br.name FROM bikes b LEFT JOIN brands br ON br.id = b.brand_id " +
+                            "WHERE b.search_text IS NULL LIMIT " + BACKFILL_BATCH_SIZE,
+                    (rs, rowNum) -> new Object[] {
+                            rs.getLong(1),
+                            buildSearchText(rs.getString(2), rs.getString(3), rs.getString(4))
+                    });
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Object[]> args = rows.stream().map(r -> new Object[] { r[1], r[0] }).toList();
+            jdbcTemplate.batchUpdate("UPDATE bikes SET search_text = ? WHERE id = ?", args);
+            total += rows.size();
+        }
+        if (total > 0) {
+            log.info("Backfilled search_text for {} bikes", total);
+        }
+    }
+}
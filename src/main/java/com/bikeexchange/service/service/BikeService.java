@@ -1,14 +1,24 @@
 package com.bikeexchange.service.service;
 
+import com.bikeexchange.config.RetryOnDeadlock;
 import com.bikeexchange.dto.request.BikeCreateRequest;
 import com.bikeexchange.dto.request.BikeMediaRequest;
-import com.bikeexchange.exception.InsufficientBalanceException;
+import com.bikeexchange.dto.response.BikeResponse;
+import com.bikeexchange.dto.response.BikeSummary;
+import com.bikeexchange.dto.response.CursorPage;
 import com.bikeexchange.exception.ResourceNotFoundException;
 import com.bikeexchange.model.*;
 import com.bikeexchange.repository.*;
+import com.bikeexchange.service.MediaAssetService;
+import com.bikeexchange.util.ImageVariants;
+import com.bikeexchange.util.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,11 +26,18 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 @Service
 public class BikeService {
 
+    private static final Logger log = LoggerFactory.getLogger(BikeService.class);
+
+    private static final String CURSOR_RECENT = "recent";
+    private static final String CURSOR_RATING = "rating";
+    private static final String CURSOR_RELEVANCE = "relevance";
+
     @Autowired
     private BikeRepository bikeRepository;
 
@@ -37,7 +54,7 @@ public class BikeService {
     private HistoryService historyService;
 
     @Autowired
-    private UserWalletRepository walletRepository;
+    private LedgerService ledgerService;
 
     @Autowired
     private PointTransactionRepository pointTxRepo;
@@ -45,24 +62,57 @@ public class BikeService {
     @Autowired
     private OrderRuleConfigService orderRuleConfigService;
 
-    public Page<Bike> searchBikes(String keyword, Pageable pageable) {
-        if (keyword != null && !keyword.isBlank()) {
-            return bikeRepository.searchAllStatuses(keyword, pageable);
-        }
-        return bikeRepository.findAll(pageable);
-    }
+    @Autowired
+    private BikeSearchService bikeSearchService;
+
+    @Autowired
+    private BikeListingService bikeListingService;
+
+    @Autowired
+    private MediaAssetService mediaAssetService;
+
+    @Value("${app.listing.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${app.listing.page-size.max:100}")
+    private int maxPageSize;
 
     public Page<Bike> searchBikesByCategory(Long categoryId, Pageable pageable) {
         return bikeRepository.findByCategories_Id(categoryId, pageable);
     }
 
-    public Page<Bike> searchBikesAdvanced(String keyword, Long categoryId, String status,
-            Long minPrice, Long maxPrice, Long brandId, Integer minYear, String frameSize, Long sellerId, boolean sortByRating, Pageable pageable) {
+    /**
+     * Keyset-paginated listing search. All filters are combined into one query ordered by
+     * (createdAt, id) descending, or by (seller rating, id) when sortByRating is set. A keyword
+     * search without sortByRating is ordered by (full-text relevance, id) when the FULLTEXT
+     * index can serve it. The cursor is the sort key of the previous page's last row, so every
+     * page costs the same and no COUNT query is issued.
+     *
+     * The page is read in two phases: the key columns of the matching rows first, then the
+     * bikes themselves in batch through BikeListingService.
+     */
+    public CursorPage<BikeResponse> searchBikesAdvanced(String keyword, Long categoryId, String status,
+            Long minPrice, Long maxPrice, Long brandId, Integer minYear, String frameSize, Long sellerId,
+            boolean sortByRating, String cursor, Integer size) {
+        CursorPage<Long> ids = findListingIds(keyword, categoryId, status, minPrice, maxPrice, brandId, minYear,
+                frameSize, sellerId, sortByRating, cursor, size);
+        return new CursorPage<>(bikeListingService.loadResponses(ids.getItems()), ids.getNextCursor(), ids.isHasMore());
+    }
 
-        if (sortByRating) {
-            pageable = org.springframework.data.domain.PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
-                    org.springframework.data.domain.Sort.by("seller.rating").descending());
-        }
+    /**
+     * Same search as {@link #searchBikesAdvanced}, returning lightweight cards for browse grids.
+     */
+    public CursorPage<BikeSummary> searchBikeSummaries(String keyword, Long categoryId, String status,
+            Long minPrice, Long maxPrice, Long brandId, Integer minYear, String frameSize, Long sellerId,
+            boolean sortByRating, String cursor, Integer size) {
+        CursorPage<Long> ids = findListingIds(keyword, categoryId, status, minPrice, maxPrice, brandId, minYear,
+                frameSize, sellerId, sortByRating, cursor, size);
+        return new CursorPage<>(bikeListingService.loadSummaries(ids.getItems()), ids.getNextCursor(), ids.isHasMore());
+    }
+
+    private CursorPage<Long> findListingIds(String keyword, Long categoryId, String status,
+            Long minPrice, Long maxPrice, Long brandId, Integer minYear, String frameSize, Long sellerId,
+            boolean sortByRating, String cursor, Integer size) {
 
         List<Bike.BikeStatus> statuses;
         if (status != null && !status.isBlank()) {
@@ -83,29 +133,82 @@ public class BikeService {
             statuses = java.util.Arrays.asList(Bike.BikeStatus.values());
         }
 
-        if (keyword != null && !keyword.isBlank()) {
-            if (categoryId != null) {
-                return bikeRepository.searchByCategoryKeywordAndStatuses(categoryId, keyword.toLowerCase(), statuses, sellerId,
-                        pageable);
-            }
-            return bikeRepository.searchByKeywordAndStatuses(keyword.toLowerCase(), statuses, sellerId, pageable);
+        int pageSize = resolvePageSize(size);
+        boolean hasKeyword = keyword != null && !keyword.isBlank();
+        // A recency cursor handed out while the full-text query was failing keeps its ordering
+        String relevanceQuery = hasKeyword && !sortByRating && !CURSOR_RECENT.equals(KeysetCursor.kindOf(cursor))
+                ? bikeSearchService.relevanceQuery(keyword) : null;
+        String cursorKind = sortByRating ? CURSOR_RATING : relevanceQuery != null ? CURSOR_RELEVANCE : CURSOR_RECENT;
+        KeysetCursor after = KeysetCursor.decode(cursor, cursorKind, 2);
+
+        Specification<Bike> filters = Specification.where(null);
+        if (statuses.size() < Bike.BikeStatus.values().length) {
+            List<Bike.BikeStatus> statusFilter = statuses;
+            filters = filters.and((root, query, cb) -> root.get("status").in(statusFilter));
+        }
+        if (categoryId != null) {
+            filters = filters.and((root, query, cb) -> cb.equal(root.join("categories").get("id"), categoryId));
+        }
+        if (sellerId != null) {
+            filters = filters.and((root, query, cb) -> cb.equal(root.get("seller").get("id"), sellerId));
+        }
+        if (brandId != null) {
+            filters = filters.and((root, query, cb) -> cb.equal(root.get("brand").get("id"), brandId));
+        }
+        if (minPrice != null) {
+            filters = filters.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("pricePoints"), minPrice));
+        }
+        if (maxPrice != null) {
+            filters = filters.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("pricePoints"), maxPrice));
+        }
+        if (minYear != null) {
+            filters = filters.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("year"), minYear));
+        }
+        if (frameSize != null && !frameSize.isBlank()) {
+            filters = filters.and((root, query, cb) -> cb.equal(root.get("frameSize"), frameSize));
         }
 
-        // If price/frame/brand filters provided, use advanced filter
-        if (minPrice != null || maxPrice != null || minYear != null || (frameSize != null && !frameSize.isBlank()) || brandId != null) {
-            return bikeRepository.filterBikesAdvanced(minPrice, maxPrice, brandId, minYear, frameSize, sellerId, pageable);
+        Object afterKey = after == null ? null
+                : (CURSOR_RECENT.equals(cursorKind) ? after.getDateTime(0) : after.getDouble(0));
+        Long afterId = after == null ? null : after.getLong(1);
+        // One row beyond the page tells whether a next page exists without counting
+        List<Object[]> keys;
+        try {
+            keys = relevanceQuery != null
+                    ? bikeRepository.findRelevanceKeys(filters, relevanceQuery, (Double) afterKey, afterId, pageSize + 1)
+                    : bikeRepository.findListingKeys(
+                            hasKeyword ? filters.and(bikeSearchService.keywordSpecification(keyword, true)) : filters,
+                            sortByRating, afterKey, afterId, pageSize + 1);
+        } catch (RuntimeException e) {
+            // A relevance page past the first cannot continue in recency order
+            if (!hasKeyword || (relevanceQuery != null && after != null)) {
+                throw e;
+            }
+            log.warn("Full-text listing query failed, retrying with LIKE: {}", e.getMessage());
+            if (relevanceQuery != null) {
+                cursorKind = CURSOR_RECENT;
+            }
+            keys = bikeRepository.findListingKeys(
+                    filters.and(bikeSearchService.keywordSpecification(keyword, false)),
+                    sortByRating, afterKey, afterId, pageSize + 1);
         }
 
-        if (categoryId != null) {
-            if (sellerId != null) return bikeRepository.findBySellerIdAndCategories_IdAndStatusIn(sellerId, categoryId, statuses, pageable);
-            return bikeRepository.findByCategories_IdAndStatusIn(categoryId, statuses, pageable);
+        boolean hasMore = keys.size() > pageSize;
+        List<Object[]> pageKeys = hasMore ? keys.subList(0, pageSize) : keys;
+        String nextCursor = null;
+        if (hasMore) {
+            Object[] last = pageKeys.get(pageKeys.size() - 1);
+            nextCursor = KeysetCursor.encode(cursorKind, last[1], last[0]);
         }
-        
-        if (sellerId != null) {
-            return bikeRepository.findBySellerIdAndStatusIn(sellerId, statuses, pageable);
+        List<Long> ids = pageKeys.stream().map(k -> (Long) k[0]).toList();
+        return new CursorPage<>(ids, nextCursor, hasMore);
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
         }
-        
-        return bikeRepository.findByStatusIn(statuses, pageable);
+        return Math.min(size, maxPageSize);
     }
 
     public Bike getBikeById(Long id) {
@@ -113,6 +216,7 @@ public class BikeService {
                 .orElseThrow(() -> new ResourceNotFoundException("Bike not found with id: " + id));
     }
 
+    @RetryOnDeadlock
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public Bike createBike(Long sellerId, BikeCreateRequest request) {
         User seller = userRepository.findById(sellerId)
@@ -146,6 +250,7 @@ public class BikeService {
                 BikeMedia bm = new BikeMedia();
                 bm.setBike(bike);
                 bm.setUrl(mr.getUrl());
+                bm.setPublicId(mr.getPublicId() != null ? mr.getPublicId() : ImageVariants.publicIdOf(mr.getUrl()));
                 bm.setType(BikeMedia.MediaType.valueOf(mr.getType().toUpperCase()));
                 bm.setSortOrder(mr.getSortOrder() != null ? mr.getSortOrder() : i);
                 bike.getMedia().add(bm);
@@ -162,27 +267,18 @@ public class BikeService {
             }
             bike.setCategories(categories);
         }
+        bikeSearchService.index(bike);
 
         // Deduct points for posting a new bike
-        UserWallet wallet = walletRepository.findByUserIdForUpdate(sellerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found for seller"));
-
         long postFee = 0;
         String remarks = "Phí đăng tin xe đạp mới";
 
-        if (wallet.getRemainingFreePosts() > 0) {
+        if (ledgerService.useFreePost(sellerId)) {
             // Use a free post sloth
-            wallet.setRemainingFreePosts(wallet.getRemainingFreePosts() - 1);
             remarks = "Dùng lượt đăng bài ưu đãi (Combo)";
         } else {
             postFee = orderRuleConfigService.getBikePostFee();
-            if (wallet.getAvailablePoints() < postFee) {
-                throw new InsufficientBalanceException("Số dư không đủ. Bạn cần " + postFee + " điểm để đăng xe mới.");
-            }
-            wallet.setAvailablePoints(wallet.getAvailablePoints() - postFee);
         }
-        
-        walletRepository.save(wallet);
 
         // Record the transaction
         PointTransaction tx = new PointTransaction();
@@ -194,11 +290,19 @@ public class BikeService {
         tx.setRemarks(remarks);
         pointTxRepo.save(tx);
 
+        if (postFee > 0) {
+            ledgerService.post("bike-post-fee:" + tx.getId(), "FEE", tx.getReferenceId(),
+                    "Số dư không đủ. Bạn cần " + postFee + " điểm để đăng xe mới.",
+                    LedgerService.available(sellerId, -postFee), LedgerService.platformRevenue(postFee));
+        }
+
         Bike saved = bikeRepository.save(bike);
+        mediaAssetService.retain(sellerId, mediaPublicIds(saved));
         historyService.log("bike", saved.getId(), "created", seller.getId(), null);
         return saved;
     }
 
+    @Transactional
     public Bike updateBike(Long bikeId, Long sellerId, BikeCreateRequest request) {
         Bike bike = getBikeById(bikeId);
 
@@ -226,13 +330,16 @@ public class BikeService {
         bike.setUpdatedAt(LocalDateTime.now());
 
         // Handle Media logic
+        List<String> releasedPublicIds = List.of();
         if (request.getMedia() != null) {
+            releasedPublicIds = mediaPublicIds(bike);
             bike.getMedia().clear(); // Orphan removal will delete old rows
             for (int i = 0; i < request.getMedia().size(); i++) {
                 BikeMediaRequest mr = request.getMedia().get(i);
                 BikeMedia bm = new BikeMedia();
                 bm.setBike(bike);
                 bm.setUrl(mr.getUrl());
+                bm.setPublicId(mr.getPublicId() != null ? mr.getPublicId() : ImageVariants.publicIdOf(mr.getUrl()));
                 bm.setType(BikeMedia.MediaType.valueOf(mr.getType().toUpperCase()));
                 bm.setSortOrder(mr.getSortOrder() != null ? mr.getSortOrder() : i);
                 bike.getMedia().add(bm);
@@ -249,12 +356,19 @@ public class BikeService {
             }
             bike.setCategories(categories);
         }
+        bikeSearchService.index(bike);
 
         Bike saved = bikeRepository.save(bike);
+        if (request.getMedia() != null) {
+            // Retain first so images kept across the edit never reach zero references
+            mediaAssetService.retain(sellerId, mediaPublicIds(saved));
+            mediaAssetService.release(sellerId, releasedPublicIds);
+        }
         historyService.log("bike", saved.getId(), "updated", sellerId, null);
         return saved;
     }
 
+    @Transactional
     public void deleteBike(Long bikeId, com.bikeexchange.security.UserPrincipal principal) {
         Bike bike = getBikeById(bikeId);
         Long userId = principal.getId();
@@ -270,8 +384,13 @@ public class BikeService {
         }
 
         // Hard delete: remove from database
+        List<String> releasedPublicIds = mediaPublicIds(bike);
         bikeRepository.deleteById(bikeId);
+        mediaAssetService.release(bike.getSeller().getId(), releasedPublicIds);
         historyService.log("bike", bikeId, "deleted", userId, isAdmin ? "Deleted by Admin" : null);
     }
 
+    private static List<String> mediaPublicIds(Bike bike) {
+        return bike.getMedia().stream().map(BikeMedia::getPublicId).filter(Objects::nonNull).toList();
+    }
 }
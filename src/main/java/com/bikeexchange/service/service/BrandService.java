@@ -19,6 +19,9 @@ public class BrandService {
     @Autowired
     private BikeRepository bikeRepository;
 
+    @Autowired
+    private BikeSearchService bikeSearchService;
+
     public List<Brand> findAll() {
         return brandRepository.findAll();
     }
@@ -45,6 +48,8 @@ public class BrandService {
                 throw new IllegalArgumentException("Brand with name '" + payload.getName() + "' already exists");
             }
             existing.setName(payload.getName());
+            // search_text carries the brand name, so keyword search must see the new one
+            bikeSearchService.reindexBrand(existing.getId(), existing.getName());
         }
         
         if (payload.getDescription() != null) {
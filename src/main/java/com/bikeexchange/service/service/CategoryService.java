@@ -2,6 +2,7 @@ package com.bikeexchange.service.service;
 
 import com.bikeexchange.dto.request.CategoryRequest;
 import com.bikeexchange.dto.response.BikeResponse;
+import com.bikeexchange.dto.response.BikeSummary;
 import com.bikeexchange.model.Bike;
 import com.bikeexchange.model.Category;
 import com.bikeexchange.repository.BikeRepository;
@@ -57,6 +58,10 @@ public class CategoryService {
         return bikes.map(BikeResponse::fromEntity);
     }
 
+    public Page<BikeSummary> listBikeSummariesByCategory(Long categoryId, Pageable pageable) {
+        return bikeRepository.findSummariesByCategoryId(categoryId, pageable);
+    }
+
     public List<BikeResponse> listAllBikesByCategory(Long categoryId) {
         return bikeRepository.findByCategories_Id(categoryId).stream()
                 .map(BikeResponse::fromEntity).toList();
@@ -0,0 +1,22 @@
+package com.bikeexchange.service.service;
+
+import java.util.List;
+
+/**
+ * Delivers STOMP messages to a user's /user/** destinations wherever the user is connected.
+ *
+ * Selected with {@code app.chat.relay}: {@code local} (default, single instance) sends
+ * through this node's broker only; {@code redis} fans out over Redis pub/sub so every
+ * instance delivers to the sessions it holds.
+ */
+public interface ChatMessageRelay {
+
+    /**
+     * Sends one payload to several users; it is serialised to JSON once for all of them.
+     */
+    void sendToUsers(List<Long> userIds, String destination, Object payload);
+
+    default void sendToUser(Long userId, String destination, Object payload) {
+        sendToUsers(List.of(userId), destination, payload);
+    }
+}
@@ -2,6 +2,9 @@ package com.bikeexchange.service.service;
 
 import com.bikeexchange.dto.request.ConversationCreateRequest;
 import com.bikeexchange.dto.request.MessageSendRequest;
+import com.bikeexchange.dto.response.ConversationSummary;
+import com.bikeexchange.dto.response.CursorPage;
+import com.bikeexchange.dto.response.MessageResponse;
 import com.bikeexchange.exception.ResourceNotFoundException;
 import com.bikeexchange.model.Bike;
 import com.bikeexchange.model.Conversation;
@@ -11,19 +14,42 @@ import com.bikeexchange.repository.BikeRepository;
 import com.bikeexchange.repository.ConversationRepository;
 import com.bikeexchange.repository.MessageRepository;
 import com.bikeexchange.repository.UserRepository;
+import com.bikeexchange.security.CustomUserDetailsService;
+import com.bikeexchange.security.StompSessionContext;
+import com.bikeexchange.security.UserPrincipalCache;
+import com.bikeexchange.util.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class ChatService {
 
+    private static final Logger log = LoggerFactory.getLogger(ChatService.class);
+
+    private static final String CURSOR_MESSAGES = "messages";
+    private static final String CURSOR_INBOX = "inbox";
+    private static final LocalDateTime INBOX_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final int PREVIEW_LENGTH = 200;
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
     @Autowired
     private ConversationRepository conversationRepository;
 
@@ -36,10 +62,64 @@ public class ChatService {
     @Autowired
     private BikeRepository bikeRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Value("${app.chat.session.revalidate-ms:300000}")
+    private long sessionRevalidateMs;
+
+    @Value("${app.chat.page-size.default:50}")
+    private int defaultPageSize;
+
+    @Value("${app.chat.page-size.max:200}")
+    private int maxPageSize;
+
     public List<Conversation> getUserConversations(Long userId) {
         return conversationRepository.findUserConversations(userId);
     }
 
+    /**
+     * One page of the user's inbox, most recently active first. The buyer-side and
+     * seller-side queries each read at most size + 1 rows from their own index and are
+     * merged here, instead of one OR query that cannot use either index.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ConversationSummary> getInbox(Long userId, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        KeysetCursor after = KeysetCursor.decode(cursor, CURSOR_INBOX, 2);
+        LocalDateTime afterAt = after == null ? INBOX_START : after.getDateTime(0);
+        Long afterId = after == null ? Long.MAX_VALUE : after.getLong(1);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<ConversationSummary> rows = new ArrayList<>(conversationRepository.findBuyerInbox(userId, afterAt, afterId, limit));
+        rows.addAll(conversationRepository.findSellerInbox(userId, afterAt, afterId, limit));
+        rows.sort(Comparator.comparing(ConversationSummary::getUpdatedAt)
+                .thenComparing(ConversationSummary::getId)
+                .reversed());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ConversationSummary> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ConversationSummary last = items.get(items.size() - 1);
+            nextCursor = KeysetCursor.encode(CURSOR_INBOX, last.getUpdatedAt(), last.getId());
+        }
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    private static String preview(String content) {
+        if (content == null) {
+            return null;
+        }
+        return content.length() <= PREVIEW_LENGTH ? content : content.substring(0, PREVIEW_LENGTH - 3) + "...";
+    }
+
     public Page<Message> getMessages(Long conversationId, Pageable pageable) {
         return messageRepository.findByConversationIdOrderByCreatedAtDesc(conversationId, pageable);
     }
@@ -48,6 +128,67 @@ public class ChatService {
         return messageRepository.findByConversationIdOrderByCreatedAtAsc(conversationId);
     }
 
+    /**
+     * One page of a conversation, returned oldest to newest.
+     *
+     * Without {@code afterId} it pages backwards in time: the first call returns the latest
+     * messages and {@code nextCursor} fetches the page before them. With {@code afterId}
+     * it returns messages newer than that one (delta sync after a reconnect), and
+     * {@code hasMore} means the caller should repeat with the last id it received.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MessageResponse> getMessagePage(Long conversationId, Long userId, String cursor,
+                                                      Long afterId, Integer size) {
+        ConversationRepository.ReadState readState = conversationRepository.findReadState(conversationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Conversation not found"));
+        if (!userId.equals(readState.getBuyerId()) && !userId.equals(readState.getSellerId())) {
+            throw new IllegalArgumentException("Only conversation participants can read its messages");
+        }
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        // One row beyond the page tells whether there is more without counting
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        if (afterId != null) {
+            LocalDateTime afterAt = messageRepository.findCreatedAt(conversationId, afterId)
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid afterId"));
+            List<MessageResponse> rows = messageRepository.findAfter(conversationId, afterAt, afterId, limit);
+            boolean hasMore = rows.size() > pageSize;
+            List<MessageResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
+            applyReadState(items, readState);
+            return new CursorPage<>(items, null, hasMore);
+        }
+
+        KeysetCursor before = KeysetCursor.decode(cursor, CURSOR_MESSAGES, 2);
+        List<MessageResponse> rows = before == null
+                ? messageRepository.findLatest(conversationId, limit)
+                : messageRepository.findBefore(conversationId, before.getDateTime(0), before.getLong(1), limit);
+        boolean hasMore = rows.size() > pageSize;
+        List<MessageResponse> items = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        String nextCursor = null;
+        if (hasMore) {
+            MessageResponse oldest = items.get(items.size() - 1);
+            nextCursor = KeysetCursor.encode(CURSOR_MESSAGES, oldest.getCreatedAt(), oldest.getId());
+        }
+        Collections.reverse(items);
+        applyReadState(items, readState);
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * A message is read once the recipient's read cursor has reached it. Conversations not
+     * yet backfilled keep the legacy per-message flag.
+     */
+    private static void applyReadState(List<MessageResponse> items, ConversationRepository.ReadState readState) {
+        for (MessageResponse item : items) {
+            Long recipientCursor = readState.getBuyerId().equals(item.getSenderId())
+                    ? readState.getSellerLastReadMessageId()
+                    : readState.getBuyerLastReadMessageId();
+            if (recipientCursor != null) {
+                item.setIsRead(item.getId() <= recipientCursor);
+            }
+        }
+    }
+
     @Transactional
     public Conversation createConversation(Long buyerId, ConversationCreateRequest request) {
         if (request.getBikeId() == null) {
@@ -86,42 +227,185 @@ public class ChatService {
         conversation.setSeller(seller);
         conversation.setCreatedAt(LocalDateTime.now());
         conversation.setUpdatedAt(LocalDateTime.now());
+        conversation.setBuyerLastReadMessageId(0L);
+        conversation.setSellerLastReadMessageId(0L);
 
         return conversationRepository.save(conversation);
     }
 
+    /**
+     * Sends a message over HTTP. One participants query replaces loading the sender and
+     * the conversation; the write is the same as {@link #sendMessage(StompSessionContext, MessageSendRequest)}.
+     */
     @Transactional
-    public Message sendMessage(Long senderId, MessageSendRequest request) {
-        User sender = userRepository.findById(senderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Sender not found"));
+    public Delivery sendMessage(Long senderId, MessageSendRequest request) {
+        Long conversationId = requireConversationId(request);
+        StompSessionContext.Membership membership = loadMembership(conversationId, senderId);
+        return store(conversationId, senderId, membership, request.getContent());
+    }
+
+    /**
+     * Sends a message over a STOMP connection. Membership comes from the session context
+     * (one lookup per conversation per connection), so a message costs its INSERT plus the
+     * conversation UPDATE.
+     */
+    @Transactional
+    public Delivery sendMessage(StompSessionContext session, MessageSendRequest request) {
+        Long conversationId = requireConversationId(request);
+        Long senderId = session.getUserId();
+        if (userPrincipalCache.changedSince(senderId, session.getValidatedAt())
+                || session.getValidatedAt() + sessionRevalidateMs <= System.currentTimeMillis()) {
+            session.refresh(customUserDetailsService.loadCachedUserById(senderId));
+        }
+        if (!session.canSend()) {
+            throw new IllegalArgumentException("Account is not authorized to send messages");
+        }
 
-        Conversation conversation;
+        StompSessionContext.Membership membership = session.getMembership(conversationId);
+        if (membership == null) {
+            membership = loadMembership(conversationId, senderId);
+            session.putMembership(conversationId, membership);
+        }
+        return store(conversationId, senderId, membership, request.getContent());
+    }
 
+    private static Long requireConversationId(MessageSendRequest request) {
         if (request.getConversationId() == null) {
             throw new IllegalArgumentException("conversationId is required to send a message");
         }
+        return request.getConversationId();
+    }
 
-        conversation = conversationRepository.findById(request.getConversationId())
+    private StompSessionContext.Membership loadMembership(Long conversationId, Long userId) {
+        ConversationRepository.ReadState readState = conversationRepository.findReadState(conversationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Conversation not found"));
+        if (!userId.equals(readState.getBuyerId()) && !userId.equals(readState.getSellerId())) {
+            throw new IllegalArgumentException("Only conversation participants can send messages");
+        }
+        return new StompSessionContext.Membership(readState.getBuyerId(), readState.getSellerId());
+    }
 
-        conversation.setUpdatedAt(LocalDateTime.now());
-        conversation = conversationRepository.save(conversation);
-
+    /**
+     * Inserts the message through id-only references and records it on the conversation
+     * with one UPDATE (inbox preview, recency and the recipient's unread counter).
+     */
+    private Delivery store(Long conversationId, Long senderId, StompSessionContext.Membership membership,
+                           String content) {
         Message message = new Message();
-        message.setConversation(conversation);
-        message.setSender(sender);
-        message.setContent(request.getContent());
-        message.setIsRead(false);
-        message.setCreatedAt(LocalDateTime.now());
+        message.setConversation(conversationRepository.getReferenceById(conversationId));
+        message.setSender(userRepository.getReferenceById(senderId));
+        message.setContent(content);
+        Message saved = messageRepository.save(message);
+
+        String preview = preview(saved.getContent());
+        if (membership.isBuyer(senderId)) {
+            conversationRepository.recordMessageForSeller(conversationId, saved.getId(), preview, senderId,
+                    saved.getCreatedAt());
+        } else {
+            conversationRepository.recordMessageForBuyer(conversationId, saved.getId(), preview, senderId,
+                    saved.getCreatedAt());
+        }
+        MessageResponse response = new MessageResponse(saved.getId(), conversationId, senderId,
+                saved.getContent(), saved.getIsRead(), saved.getCreatedAt());
+        return new Delivery(response, membership.recipientOf(senderId));
+    }
 
-        return messageRepository.save(message);
+    /**
+     * A stored message and the participant it should be pushed to.
+     */
+    public record Delivery(MessageResponse message, Long recipientId) {
+    }
+
+    /**
+     * Moves the user's read cursor to the latest message (or {@code upToMessageId}) and
+     * resets their unread counter. A cursor already at or past that message is left alone.
+     */
+    @Transactional
+    public void markAsRead(Long conversationId, Long userId, Long upToMessageId) {
+        Long lastId = messageRepository.findLastMessageId(conversationId);
+        if (lastId == null) {
+            return;
+        }
+        if (upToMessageId != null) {
+            lastId = Math.min(lastId, upToMessageId);
+        }
+        if (conversationRepository.markReadByBuyer(conversationId, userId, lastId) == 0) {
+            conversationRepository.markReadBySeller(conversationId, userId, lastId);
+        }
     }
 
     @Transactional
     public void markAsRead(Long conversationId, Long userId) {
-        List<Message> unread = messageRepository.findByConversationIdAndIsReadFalseAndSenderIdNot(conversationId,
-                userId);
-        unread.forEach(m -> m.setIsRead(true));
-        messageRepository.saveAll(unread);
+        markAsRead(conversationId, userId, null);
+    }
+
+    /**
+     * Initialises read cursors, unread counters (from the legacy per-message is_read flags)
+     * and last-message previews for conversations created before those columns existed.
+     * Runs once per start in batches.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillConversationState() {
+        int total = 0;
+        try {
+            while (true) {
+                int updated = jdbcTemplate.update(
+                        // MySQL applies SET clauses left to right: counters are computed before the cursors are set
+                        "UPDATE conversations c SET " +
+                                "c.buyer_unread_count = IF(c.buyer_last_read_message_id IS NULL, " +
+                                "(SELECT COUNT(*) FROM messages m WHERE m.conversation_id = c.id " +
+                                "AND m.sender_id <> c.buyer_id AND (m.is_read IS NULL OR m.is_read = FALSE)), c.buyer_unread_count), " +
+                                "c.seller_unread_count = IF(c.seller_last_read_message_id IS NULL, " +
+                                "(SELECT COUNT(*) FROM messages m WHERE m.conversation_id = c.id " +
+                                "AND m.sender_id <> c.seller_id AND (m.is_read IS NULL OR m.is_read = FALSE)), c.seller_unread_count), " +
+                                "c.buyer_last_read_message_id = COALESCE(c.buyer_last_read_message_id, (SELECT MAX(m.id) FROM messages m " +
+                                "WHERE m.conversation_id = c.id AND m.sender_id <> c.buyer_id AND m.is_read = TRUE), 0), " +
+                                "c.seller_last_read_message_id = COALESCE(c.seller_last_read_message_id, (SELECT MAX(m.id) FROM messages m " +
+                                "WHERE m.conversation_id = c.id AND m.sender_id <> c.seller_id AND m.is_read = TRUE), 0) " +
+                                "WHERE c.buyer_last_read_message_id IS NULL OR c.seller_last_read_message_id IS NULL " +
+                                "ORDER BY c.id LIMIT " + BACKFILL_BATCH_SIZE);
+                total += updated;
+                if (updated < BACKFILL_BATCH_SIZE) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not backfill conversation read cursors: {}", e.getMessage());
+        }
+        if (total > 0) {
+            log.info("Backfilled read cursors for {} conversations", total);
+        }
+        backfillLastMessages();
+    }
+
+    private void backfillLastMessages() {
+        int total = 0;
+        try {
+            while (true) {
+                int updated = jdbcTemplate.update(
+                        // MySQL applies SET clauses left to right: the later ones see the new last_message_id
+                        "UPDATE conversations c SET " +
+                                "c.last_message_id = (SELECT MAX(m.id) FROM messages m WHERE m.conversation_id = c.id), " +
+                                // Same truncation as preview()
+                                "c.last_message_preview = (SELECT CASE WHEN CHAR_LENGTH(m.content) > " + PREVIEW_LENGTH +
+                                " THEN CONCAT(LEFT(m.content, " + (PREVIEW_LENGTH - 3) + "), '...') ELSE m.content END " +
+                                "FROM messages m WHERE m.id = c.last_message_id), " +
+                                "c.last_message_at = (SELECT m.created_at FROM messages m WHERE m.id = c.last_message_id), " +
+                                "c.last_message_sender_id = (SELECT m.sender_id FROM messages m WHERE m.id = c.last_message_id) " +
+                                "WHERE c.last_message_id IS NULL " +
+                                "AND EXISTS (SELECT 1 FROM messages m WHERE m.conversation_id = c.id) " +
+                                "ORDER BY c.id LIMIT " + BACKFILL_BATCH_SIZE);
+                total += updated;
+                if (updated < BACKFILL_BATCH_SIZE) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not backfill conversation last messages: {}", e.getMessage());
+        }
+        if (total > 0) {
+            log.info("Backfilled last message previews for {} conversations", total);
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.bikeexchange.service.service;
 
+import com.bikeexchange.config.RetryOnDeadlock;
 import com.bikeexchange.dto.request.DisputeResolutionType;
 import com.bikeexchange.dto.request.ReturnDisputeRequest;
 import com.bikeexchange.exception.InvalidOrderStatusException;
@@ -21,6 +22,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
+@RetryOnDeadlock
 public class DisputeService {
 
     @Autowired
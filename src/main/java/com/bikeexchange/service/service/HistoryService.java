@@ -1,23 +1,195 @@
 package com.bikeexchange.service.service;
 
-import com.bikeexchange.model.History;
-import com.bikeexchange.repository.HistoryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Audit trail (histories table).
+ *
+ * Events logged inside a transaction are collected and only written if it commits:
+ * <ul>
+ *   <li>durable entity types ({@code app.history.durable-entity-types}, e.g. order) are
+ *       inserted with one multi-row INSERT just before commit, in the same transaction;</li>
+ *   <li>everything else is handed after commit to a bounded in-memory queue that a
+ *       scheduled flusher writes in batches. When the queue is full the batch is written
+ *       synchronously instead of being dropped.</li>
+ * </ul>
+ * Queued events that have not been flushed are lost if the process dies, which is why
+ * order history (shown to buyers and sellers) is durable. The queue is drained on shutdown.
+ */
 @Service
 public class HistoryService {
 
+    private static final Logger log = LoggerFactory.getLogger(HistoryService.class);
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO histories (entity_type, entity_id, action, performed_by, timestamp, metadata) VALUES ";
+    private static final String METRIC_PREFIX = "history.";
+
     @Autowired
-    private HistoryRepository historyRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OperationalMetrics metrics;
+
+    @Value("${app.history.write-behind.enabled:true}")
+    private boolean writeBehindEnabled;
+
+    @Value("${app.history.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.history.durable-entity-types:order,wallet}")
+    private Set<String> durableEntityTypes = new HashSet<>();
+
+    private final BlockingQueue<Entry> queue;
+
+    public HistoryService(@Value("${app.history.write-behind.queue-capacity:10000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
 
     public void log(String entityType, Long entityId, String action, Long performedBy, String metadata) {
-        History h = new History();
-        h.setEntityType(entityType);
-        h.setEntityId(entityId);
-        h.setAction(action);
-        h.setPerformedBy(performedBy);
-        h.setMetadata(metadata);
-        historyRepository.save(h);
+        Entry entry = new Entry(entityType, entityId, action, performedBy, LocalDateTime.now(), metadata);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (durableEntityTypes.contains(entityType) || !writeBehindEnabled) {
+                insert(List.of(entry));
+            } else {
+                enqueue(List.of(entry));
+            }
+            return;
+        }
+        // Bound as a transaction resource, so a suspended outer transaction keeps its own buffer
+        TransactionBuffer buffer = (TransactionBuffer) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            buffer = new TransactionBuffer();
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(buffer);
+        }
+        if (durableEntityTypes.contains(entityType) || !writeBehindEnabled) {
+            buffer.durable.add(entry);
+        } else {
+            buffer.deferred.add(entry);
+        }
+    }
+
+    /**
+     * Writes queued events in batches until the queue is empty.
+     */
+    @Scheduled(fixedDelayString = "${app.history.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                insert(batch);
+            } catch (RuntimeException e) {
+                metrics.add(METRIC_PREFIX + "dropped", batch.size());
+                log.error("Failed to write {} history events: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+        metrics.set(METRIC_PREFIX + "queue_depth", queue.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void enqueue(List<Entry> entries) {
+        List<Entry> overflow = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (!queue.offer(entry)) {
+                overflow.add(entry);
+            }
+        }
+        metrics.set(METRIC_PREFIX + "queue_depth", queue.size());
+        if (!overflow.isEmpty()) {
+            // Back-pressure: the caller pays for the write rather than losing events
+            metrics.add(METRIC_PREFIX + "queue_full_sync_writes", overflow.size());
+            insert(overflow);
+        }
+    }
+
+    private void insert(List<Entry> entries) {
+        long started = System.nanoTime();
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Entry> chunk = entries.subList(from, Math.min(entries.size(), from + batchSize));
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+            Object[] args = new Object[chunk.size() * 6];
+            int i = 0;
+            for (Entry entry : chunk) {
+                sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+                args[i++] = entry.entityType();
+                args[i++] = entry.entityId();
+                args[i++] = entry.action();
+                args[i++] = entry.performedBy();
+                args[i++] = Timestamp.valueOf(entry.timestamp());
+                args[i++] = entry.metadata();
+            }
+            jdbcTemplate.update(sql.toString(), args);
+        }
+        long elapsedMicros = (System.nanoTime() - started) / 1000;
+        metrics.add(METRIC_PREFIX + "written", entries.size());
+        metrics.increment(METRIC_PREFIX + "flushes");
+        metrics.set(METRIC_PREFIX + "last_flush_micros", elapsedMicros);
+        metrics.set(METRIC_PREFIX + "last_flush_rows", entries.size());
+    }
+
+    private record Entry(String entityType, Long entityId, String action, Long performedBy,
+                         LocalDateTime timestamp, String metadata) {
+    }
+
+    /**
+     * Events of one transaction. Durable ones join the transaction; the rest are queued once
+     * it has committed, so a rollback discards both.
+     */
+    private class TransactionBuffer implements TransactionSynchronization {
+        private final List<Entry> durable = new ArrayList<>();
+        private final List<Entry> deferred = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!durable.isEmpty()) {
+                insert(durable);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            if (!deferred.isEmpty()) {
+                enqueue(deferred);
+            }
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(HistoryService.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(HistoryService.this, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(HistoryService.this);
+        }
     }
 }
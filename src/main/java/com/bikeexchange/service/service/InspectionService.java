@@ -1,9 +1,9 @@
 package com.bikeexchange.service.service;
 
+import com.bikeexchange.config.RetryOnDeadlock;
 import com.bikeexchange.dto.request.InspectionEditDto;
 import com.bikeexchange.dto.request.InspectionReportDto;
 import com.bikeexchange.dto.request.InspectionRequestDto;
-import com.bikeexchange.exception.InsufficientBalanceException;
 import com.bikeexchange.exception.ResourceNotFoundException;
 import com.bikeexchange.model.*;
 import com.bikeexchange.repository.*;
@@ -24,6 +24,7 @@ import java.time.LocalDateTime;
  * - Audit logging for key actions
  */
 @Service
+@RetryOnDeadlock
 public class InspectionService {
 
     @Autowired
@@ -36,7 +37,7 @@ public class InspectionService {
     private BikeRepository bikeRepository;
 
     @Autowired
-    private UserWalletRepository walletRepository;
+    private LedgerService ledgerService;
 
     @Autowired
     private UserRepository userRepository;
@@ -67,30 +68,25 @@ public class InspectionService {
                     ownerId, requesterId));
         }
 
-        UserWallet wallet = walletRepository.findByUserIdForUpdate(requesterId)
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet missing"));
-
         long inspectionFee = orderRuleConfigService.getInspectionFee();
 
-        if (wallet.getAvailablePoints() < inspectionFee) {
-            throw new InsufficientBalanceException(
-                    "Not enough points to request inspection. Required: " + inspectionFee);
-        }
-
-        // Deduct points
-        wallet.setAvailablePoints(wallet.getAvailablePoints() - inspectionFee);
-        wallet.setFrozenPoints(wallet.getFrozenPoints() + inspectionFee);
-        walletRepository.save(wallet);
-
         // Transaction log
         PointTransaction tx = new PointTransaction();
-        tx.setUser(wallet.getUser());
+        tx.setUser(bike.getSeller());
         tx.setAmount(inspectionFee);
         tx.setType(PointTransaction.TransactionType.ESCROW_HOLD);
         tx.setStatus(PointTransaction.TransactionStatus.SUCCESS);
         tx.setReferenceId("Inspection req for Bike: " + bikeId);
         pointTxRepo.save(tx);
 
+        // Hold the fee until the inspection is approved or refunded
+        if (inspectionFee > 0) {
+            ledgerService.post("inspection-fee:" + tx.getId() + ":hold", "ESCROW_HOLD", "Bike: " + bikeId,
+                    "Not enough points to request inspection. Required: " + inspectionFee,
+                    LedgerService.available(requesterId, -inspectionFee),
+                    LedgerService.frozen(requesterId, inspectionFee));
+        }
+
         // Update bike
         bike.setInspectionStatus(Bike.InspectionStatus.REQUESTED);
         bikeRepository.save(bike);
@@ -260,17 +256,17 @@ public class InspectionService {
 
     private void performRefund(InspectionRequest inspection) {
         Bike bike = inspection.getBike();
-        UserWallet sellerWallet = walletRepository.findByUserIdForUpdate(bike.getSeller().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Seller Wallet missing"));
+        Long sellerId = bike.getSeller().getId();
 
         Long fee = inspection.getFeePoints();
         if (fee > 0) {
-            sellerWallet.setFrozenPoints(sellerWallet.getFrozenPoints() - fee);
-            sellerWallet.setAvailablePoints(sellerWallet.getAvailablePoints() + fee);
-            walletRepository.save(sellerWallet);
-
+            // Shares the settle key with the fee capture on approval, so the fee is settled once
+            if (!ledgerService.post("inspection:" + inspection.getId() + ":settle", "ESCROW_REFUND", null,
+                    LedgerService.frozen(sellerId, -fee), LedgerService.available(sellerId, fee))) {
+                throw new IllegalStateException("Inspection fee was already settled");
+            }
             PointTransaction tx = new PointTransaction();
-            tx.setUser(sellerWallet.getUser());
+            tx.setUser(bike.getSeller());
             tx.setAmount(fee);
             tx.setType(PointTransaction.TransactionType.EARN); // Using EARN as fallback for REFUND if DB schema is not updated
             tx.setStatus(PointTransaction.TransactionStatus.SUCCESS);
@@ -371,13 +367,11 @@ public class InspectionService {
         bikeRepository.save(bike);
 
         // Deduct fee from seller (100% goes to system platform)
-        UserWallet sellerWallet = walletRepository.findByUserIdForUpdate(bike.getSeller().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Seller Wallet missing"));
-
         Long fee = inspection.getFeePoints();
-
-        sellerWallet.setFrozenPoints(sellerWallet.getFrozenPoints() - fee);
-        walletRepository.save(sellerWallet);
+        if (fee > 0 && !ledgerService.post("inspection:" + inspection.getId() + ":settle", "FEE", null,
+                LedgerService.frozen(bike.getSeller().getId(), -fee), LedgerService.platformRevenue(fee))) {
+            throw new IllegalStateException("Inspection fee was already settled");
+        }
 
         historyService.log("inspection", inspection.getId(), "approved", adminId, null);
         historyService.log("report", report.getId(), "approved", adminId, null);
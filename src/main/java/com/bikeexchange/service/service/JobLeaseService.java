@@ -0,0 +1,40 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.repository.JobLeaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Leases in the job_leases table. Each call commits on its own, so a lease is visible to
+ * other instances as soon as it is taken, whatever the caller does afterwards.
+ */
+@Service
+public class JobLeaseService {
+
+    /** Identifies this instance as a lease owner. */
+    public static final String NODE_ID = UUID.randomUUID().toString();
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    /**
+     * Takes or renews the lease for {@code ttl}; false when another instance holds it.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryAcquire(String jobName, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        jobLeaseRepository.insertIfAbsent(jobName, now);
+        return jobLeaseRepository.acquire(jobName, NODE_ID, now.plus(ttl), now) > 0;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(String jobName) {
+        jobLeaseRepository.release(jobName, NODE_ID, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,274 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.exception.InsufficientBalanceException;
+import com.bikeexchange.exception.ResourceNotFoundException;
+import com.bikeexchange.model.UserWallet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Double-entry points ledger and the only writer of wallet balances.
+ *
+ * Every movement of points is a {@link #post ledger entry} whose legs sum to zero, e.g. an
+ * escrow hold moves points from {@code user:<id>:available} to {@code user:<id>:frozen}, a
+ * fee moves them to {@link #PLATFORM_REVENUE} and a deposit brings them in from
+ * {@link #EXTERNAL}. user_wallets holds the current balance of each user's two accounts and
+ * is changed by one conditional UPDATE per wallet (no SELECT ... FOR UPDATE and save), so
+ * a wallet row is locked only from that statement to commit and a balance can never go
+ * negative. The postings record each wallet account's balance after the entry.
+ *
+ * Wallets are always locked in ascending user id order: an entry touching several wallets
+ * locks them all with one {@link #lockWallets} statement first, and flows that will move
+ * points between the same users in several entries can lock them up front the same way.
+ *
+ * Entries carry a caller-chosen key; posting a key twice is a no-op, which makes retries
+ * and concurrent duplicates (double approve, double refund) safe.
+ */
+@Service
+public class LedgerService {
+
+    public static final String PLATFORM_REVENUE = "platform:revenue";
+    public static final String EXTERNAL = "external:settlement";
+
+    private static final String DEFAULT_INSUFFICIENT_MESSAGE = "Not enough available points";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformStatsService platformStatsService;
+
+    public enum Bucket {
+        AVAILABLE, FROZEN, NONE
+    }
+
+    /**
+     * A signed change to one account; positive amounts increase its balance.
+     */
+    public record Leg(String account, Long userId, Bucket bucket, long amount) {
+    }
+
+    public static Leg available(Long userId, long amount) {
+        return new Leg("user:" + userId + ":available", userId, Bucket.AVAILABLE, amount);
+    }
+
+    public static Leg frozen(Long userId, long amount) {
+        return new Leg("user:" + userId + ":frozen", userId, Bucket.FROZEN, amount);
+    }
+
+    public static Leg platformRevenue(long amount) {
+        return new Leg(PLATFORM_REVENUE, null, Bucket.NONE, amount);
+    }
+
+    public static Leg external(long amount) {
+        return new Leg(EXTERNAL, null, Bucket.NONE, amount);
+    }
+
+    @Transactional
+    public boolean post(String entryKey, String entryType, String referenceId, Leg... legs) {
+        return post(entryKey, entryType, referenceId, DEFAULT_INSUFFICIENT_MESSAGE, legs);
+    }
+
+    /**
+     * Applies an entry in the current transaction.
+     *
+     * @return false when an entry with this key was already posted (nothing is changed)
+     * @throws InsufficientBalanceException with {@code insufficientMessage} when an available
+     *                                      balance would go negative; the transaction rolls back
+     */
+    @Transactional
+    public boolean post(String entryKey, String entryType, String referenceId, String insufficientMessage,
+                        Leg... legs) {
+        long sum = 0;
+        for (Leg leg : legs) {
+            sum += leg.amount();
+        }
+        if (legs.length < 2 || sum != 0) {
+            throw new IllegalArgumentException("Ledger entry " + entryKey + " is not balanced");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Long entryId = claim(entryKey, entryType, referenceId, now);
+        if (entryId == null) {
+            return false;
+        }
+
+        // Net change per wallet, applied in user id order so concurrent entries lock wallets in the same order
+        Map<Long, long[]> walletDeltas = new TreeMap<>();
+        for (Leg leg : legs) {
+            if (leg.bucket() == Bucket.NONE || leg.amount() == 0) {
+                continue;
+            }
+            long[] delta = walletDeltas.computeIfAbsent(leg.userId(), id -> new long[2]);
+            delta[leg.bucket() == Bucket.AVAILABLE ? 0 : 1] += leg.amount();
+        }
+
+        if (walletDeltas.size() > 1) {
+            lockWallets(walletDeltas.keySet());
+        }
+
+        Map<Long, long[]> balances = new TreeMap<>();
+        long availableTotal = 0;
+        long frozenTotal = 0;
+        for (Map.Entry<Long, long[]> wallet : walletDeltas.entrySet()) {
+            long[] delta = wallet.getValue();
+            balances.put(wallet.getKey(), apply(wallet.getKey(), delta[0], delta[1], now, insufficientMessage));
+            availableTotal += delta[0];
+            frozenTotal += delta[1];
+        }
+
+        insertPostings(entryId, legs, balances, now);
+        platformStatsService.add(PlatformStatsService.WALLET_AVAILABLE_POINTS, availableTotal);
+        platformStatsService.add(PlatformStatsService.WALLET_FROZEN_POINTS, frozenTotal);
+        return true;
+    }
+
+    /**
+     * Locks the given wallets for the rest of the transaction, in ascending user id order
+     * and in one statement, so two transactions locking overlapping sets cannot deadlock.
+     */
+    @Transactional
+    public void lockWallets(Collection<Long> userIds) {
+        List<Long> ids = userIds.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.queryForList(
+                "SELECT user_id FROM user_wallets WHERE user_id IN (" + placeholders + ") ORDER BY user_id FOR UPDATE",
+                Long.class, ids.toArray());
+    }
+
+    /**
+     * Takes one free listing post; false when none is left.
+     */
+    @Transactional
+    public boolean useFreePost(Long userId) {
+        return jdbcTemplate.update(
+                "UPDATE user_wallets SET remaining_free_posts = remaining_free_posts - 1, updated_at = ? " +
+                        "WHERE user_id = ? AND remaining_free_posts > 0",
+                Timestamp.valueOf(LocalDateTime.now()), userId) > 0;
+    }
+
+    @Transactional
+    public void addFreePosts(Long userId, int posts) {
+        int updated = jdbcTemplate.update(
+                "UPDATE user_wallets SET remaining_free_posts = remaining_free_posts + ?, updated_at = ? WHERE user_id = ?",
+                posts, Timestamp.valueOf(LocalDateTime.now()), userId);
+        if (updated == 0) {
+            throw new ResourceNotFoundException("Wallet not found");
+        }
+    }
+
+    /**
+     * The wallet as stored now, including changes posted earlier in this transaction.
+     */
+    @Transactional(readOnly = true)
+    public UserWallet getWallet(Long userId) {
+        UserWallet wallet = entityManager.find(UserWallet.class, userId);
+        if (wallet == null) {
+            throw new ResourceNotFoundException("Wallet not found");
+        }
+        entityManager.refresh(wallet);
+        return wallet;
+    }
+
+    /**
+     * Inserts the entry row; null when an entry with this key already exists. A plain INSERT,
+     * so only a duplicate of this entry key means "already posted"; any other error, including
+     * a violation of another unique key, fails the posting.
+     */
+    private Long claim(String entryKey, String entryType, String referenceId, LocalDateTime now) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        try {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO ledger_entries (entry_key, entry_type, reference_id, created_at) VALUES (?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS);
+                ps.setString(1, entryKey);
+                ps.setString(2, entryType);
+                ps.setString(3, referenceId);
+                ps.setTimestamp(4, Timestamp.valueOf(now));
+                return ps;
+            }, keyHolder);
+        } catch (DuplicateKeyException e) {
+            // Locking read: sees the committed entry even under a REPEATABLE READ snapshot
+            List<Long> existing = jdbcTemplate.queryForList(
+                    "SELECT id FROM ledger_entries WHERE entry_key = ? FOR UPDATE", Long.class, entryKey);
+            if (existing.isEmpty()) {
+                throw e;
+            }
+            return null;
+        }
+        return keyHolder.getKey().longValue();
+    }
+
+    private long[] apply(Long userId, long availableDelta, long frozenDelta, LocalDateTime now,
+                         String insufficientMessage) {
+        int updated = jdbcTemplate.update(
+                "UPDATE user_wallets SET available_points = available_points + ?, frozen_points = frozen_points + ?, " +
+                        "version = COALESCE(version, 0) + 1, updated_at = ? " +
+                        "WHERE user_id = ? AND available_points + ? >= 0 AND frozen_points + ? >= 0",
+                availableDelta, frozenDelta, Timestamp.valueOf(now), userId, availableDelta, frozenDelta);
+
+        List<long[]> rows = jdbcTemplate.query(
+                "SELECT available_points, frozen_points FROM user_wallets WHERE user_id = ?",
+                (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) }, userId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Wallet not found for userId: " + userId);
+        }
+        long[] balance = rows.get(0);
+        if (updated == 0) {
+            if (balance[0] + availableDelta < 0) {
+                throw new InsufficientBalanceException(insufficientMessage);
+            }
+            throw new IllegalStateException("Frozen balance of user " + userId + " is lower than the amount to release");
+        }
+        return balance;
+    }
+
+    private void insertPostings(Long entryId, Leg[] legs, Map<Long, long[]> balances, LocalDateTime now) {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO ledger_postings (entry_id, account, user_id, amount, balance_after, created_at) VALUES ");
+        List<Object> args = new ArrayList<>(legs.length * 6);
+        Timestamp createdAt = Timestamp.valueOf(now);
+        for (int i = 0; i < legs.length; i++) {
+            Leg leg = legs[i];
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+            Long balanceAfter = null;
+            long[] balance = leg.userId() != null ? balances.get(leg.userId()) : null;
+            if (balance != null) {
+                balanceAfter = leg.bucket() == Bucket.AVAILABLE ? balance[0] : balance[1];
+            }
+            args.add(entryId);
+            args.add(leg.account());
+            args.add(leg.userId());
+            args.add(leg.amount());
+            args.add(balanceAfter);
+            args.add(createdAt);
+        }
+        jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+}
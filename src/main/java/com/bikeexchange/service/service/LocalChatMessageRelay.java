@@ -0,0 +1,31 @@
+package com.bikeexchange.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Relay for a single instance: users can only be connected to this node's simple broker.
+ */
+@Service
+@ConditionalOnProperty(name = "app.chat.relay", havingValue = "local", matchIfMissing = true)
+public class LocalChatMessageRelay implements ChatMessageRelay {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void sendToUsers(List<Long> userIds, String destination, Object payload) {
+        byte[] json = StompPayloads.toJson(objectMapper, payload);
+        for (Long userId : userIds) {
+            StompPayloads.sendToUser(messagingTemplate, userId.toString(), destination, json);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.exception.PurchaseBusyException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Per-instance gate: a fixed array of stripes, each holding the id of the bike being
+ * purchased through it (0 when free), claimed and released with compare-and-set. Memory is
+ * constant however many bikes are listed; two bikes that share a stripe only delay each
+ * other, never admit both.
+ */
+@Service
+@ConditionalOnProperty(name = "app.orders.admission.store", havingValue = "local", matchIfMissing = true)
+public class LocalPurchaseAdmissionGate implements PurchaseAdmissionGate {
+
+    private static final int STRIPES = 4096;
+
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final AtomicLongArray holders = new AtomicLongArray(STRIPES);
+
+    @Autowired
+    private OperationalMetrics metrics;
+
+    @Value("${app.orders.admission.max-wait-ms:200}")
+    private long maxWaitMs;
+
+    @Override
+    public <T> T admit(Long bikeId, Supplier<T> purchase) {
+        int stripe = stripe(bikeId);
+        if (!holders.compareAndSet(stripe, 0, bikeId)) {
+            metrics.increment("orders.admission.waited");
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+            do {
+                if (System.nanoTime() >= deadline || Thread.currentThread().isInterrupted()) {
+                    metrics.increment("orders.admission.rejected");
+                    throw new PurchaseBusyException("This bike is being purchased by another buyer, please try again");
+                }
+                LockSupport.parkNanos(POLL_NANOS);
+            } while (!holders.compareAndSet(stripe, 0, bikeId));
+        }
+        metrics.increment("orders.admission.admitted");
+        try {
+            return purchase.get();
+        } finally {
+            holders.set(stripe, 0);
+        }
+    }
+
+    private static int stripe(Long bikeId) {
+        long id = bikeId;
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return hash >>> (Integer.SIZE - Integer.numberOfTrailingZeros(STRIPES));
+    }
+}
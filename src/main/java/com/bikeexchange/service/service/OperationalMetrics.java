@@ -0,0 +1,36 @@
+package com.bikeexchange.service.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process counters and gauges for background work (schedulers, queues), exposed on
+ * GET /admin/metrics?type=operations. Values are per instance and reset on restart.
+ */
+@Service
+public class OperationalMetrics {
+
+    private final Map<String, AtomicLong> values = new ConcurrentHashMap<>();
+
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    public void add(String name, long delta) {
+        values.computeIfAbsent(name, key -> new AtomicLong()).addAndGet(delta);
+    }
+
+    public void set(String name, long value) {
+        values.computeIfAbsent(name, key -> new AtomicLong()).set(value);
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> result = new TreeMap<>();
+        values.forEach((name, value) -> result.put(name, value.get()));
+        return result;
+    }
+}
@@ -2,14 +2,40 @@ package com.bikeexchange.service.service;
 
 import com.bikeexchange.model.OrderRuleConfig;
 import com.bikeexchange.repository.OrderRuleConfigRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Business rules (fees, commission, return window, seller accept/ship windows) stored in the singleton
+ * order_rule_configs row.
+ *
+ * Reads are served from an in-memory snapshot. An update replaces the snapshot after it
+ * commits and publishes on {@link #INVALIDATION_CHANNEL} so other instances drop theirs;
+ * the snapshot also expires after {@code app.order-rule.cache.ttl-ms}, which bounds
+ * staleness when a notification is lost or Redis is unavailable.
+ */
 @Service
 public class OrderRuleConfigService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderRuleConfigService.class);
+
+    public static final String INVALIDATION_CHANNEL = "bikeexchange:order-rules:changed";
+
+    /** Identifies this instance so it can ignore its own invalidation messages. */
+    public static final String NODE_ID = UUID.randomUUID().toString();
+
     private static final double DEFAULT_COMMISSION_RATE = 0.02d;
     private static final long DEFAULT_SELLER_UPGRADE_FEE = 50000L;
     private static final long DEFAULT_BIKE_POST_FEE = 5000L;
@@ -24,14 +50,61 @@ public class OrderRuleConfigService {
     @Value("${app.order-rule.defaults.return-window.minutes:0}")
     private int defaultReturnWindowMinutes;
 
+    @Value("${app.order-rule.defaults.accept-window-hours:48}")
+    private int defaultAcceptWindowHours;
+
+    @Value("${app.order-rule.defaults.ship-window-hours:72}")
+    private int defaultShipWindowHours;
+
+    @Value("${app.order-rule.cache.ttl-ms:60000}")
+    private long cacheTtlMs;
+
+    @Value("${app.order-rule.cache.pubsub-enabled:true}")
+    private boolean pubSubEnabled;
+
     @Autowired
     private OrderRuleConfigRepository repository;
 
-    @Transactional(readOnly = true)
+    @Autowired
+    private ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    // Bumped on every change; a load started before a change must not install its result
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Current rules as a detached copy; changing it has no effect on the cached values.
+     */
     public OrderRuleConfig getCurrentRules() {
-        OrderRuleConfig config = repository.findById(OrderRuleConfig.SINGLETON_ID)
-                .orElseGet(this::buildDefault);
+        return copyOf(rules());
+    }
+
+    private OrderRuleConfig rules() {
+        Snapshot current = snapshot.get();
+        if (current != null && current.expiresAt() > System.currentTimeMillis()) {
+            return current.rules();
+        }
+        long loadGeneration = generation.get();
+        OrderRuleConfig loaded = withDefaults(copyOf(repository.findById(OrderRuleConfig.SINGLETON_ID)
+                .orElseGet(this::buildDefault)));
+        Snapshot fresh = new Snapshot(loaded, System.currentTimeMillis() + cacheTtlMs);
+        if (generation.get() == loadGeneration) {
+            snapshot.compareAndSet(current, fresh);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops the cached snapshot; the next read reloads it. Called when another instance
+     * reports a change.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot.set(null);
+    }
 
+    private OrderRuleConfig withDefaults(OrderRuleConfig config) {
         if (config.getCommissionRate() == null) {
             config.setCommissionRate(DEFAULT_COMMISSION_RATE);
         }
@@ -48,6 +121,12 @@ public class OrderRuleConfigService {
         if (config.getReturnWindowMinutes() == null || config.getReturnWindowMinutes() < 0) {
             config.setReturnWindowMinutes(defaultReturnWindowMinutes);
         }
+        if (config.getAcceptWindowHours() == null || config.getAcceptWindowHours() < 0) {
+            config.setAcceptWindowHours(defaultAcceptWindowHours);
+        }
+        if (config.getShipWindowHours() == null || config.getShipWindowHours() < 0) {
+            config.setShipWindowHours(defaultShipWindowHours);
+        }
         if (config.getBikePostFee() == null || config.getBikePostFee() <= 0) {
             config.setBikePostFee(DEFAULT_BIKE_POST_FEE);
         }
@@ -104,55 +183,118 @@ public class OrderRuleConfigService {
         }
 
         config.setId(OrderRuleConfig.SINGLETON_ID);
-        return repository.save(config);
+        OrderRuleConfig saved = repository.save(config);
+        publishChange(withDefaults(copyOf(saved)));
+        return saved;
+    }
+
+    /**
+     * Updates the seller accept/ship windows (hours, 0 disables auto-cancel for that stage).
+     */
+    @Transactional
+    public OrderRuleConfig updateOrderTimeouts(Integer acceptWindowHours, Integer shipWindowHours) {
+        OrderRuleConfig config = repository.findById(OrderRuleConfig.SINGLETON_ID)
+                .orElseGet(this::buildDefault);
+
+        if (acceptWindowHours != null) {
+            validateOrderTimeoutHours("acceptWindowHours", acceptWindowHours);
+            config.setAcceptWindowHours(acceptWindowHours);
+        }
+
+        if (shipWindowHours != null) {
+            validateOrderTimeoutHours("shipWindowHours", shipWindowHours);
+            config.setShipWindowHours(shipWindowHours);
+        }
+
+        config.setId(OrderRuleConfig.SINGLETON_ID);
+        OrderRuleConfig saved = repository.save(config);
+        publishChange(withDefaults(copyOf(saved)));
+        return withDefaults(copyOf(saved));
+    }
+
+    /**
+     * Installs the new rules locally and notifies other instances once the update has
+     * committed, so nobody caches values that could still roll back.
+     */
+    private void publishChange(OrderRuleConfig updated) {
+        Runnable apply = () -> {
+            generation.incrementAndGet();
+            snapshot.set(new Snapshot(updated, System.currentTimeMillis() + cacheTtlMs));
+            notifyOtherInstances();
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private void notifyOtherInstances() {
+        if (!pubSubEnabled) {
+            return;
+        }
+        StringRedisTemplate template = redisTemplate.getIfAvailable();
+        if (template == null) {
+            return;
+        }
+        try {
+            template.convertAndSend(INVALIDATION_CHANNEL, NODE_ID);
+        } catch (RuntimeException e) {
+            // Other instances pick the change up when their snapshot expires
+            log.warn("Could not publish order rule change: {}", e.getMessage());
+        }
     }
 
-    @Transactional(readOnly = true)
     public double getCommissionRate() {
-        return getCurrentRules().getCommissionRate();
+        return rules().getCommissionRate();
     }
 
-    @Transactional(readOnly = true)
     public double getCommissionRatePercent() {
-        return ratioToPercent(getCurrentRules().getCommissionRate());
+        return ratioToPercent(rules().getCommissionRate());
     }
 
-    @Transactional(readOnly = true)
     public long getSellerUpgradeFee() {
-        return getCurrentRules().getSellerUpgradeFee();
+        return rules().getSellerUpgradeFee();
     }
 
-    @Transactional(readOnly = true)
     public int getReturnWindowDays() {
-        return getCurrentRules().getReturnWindowDays();
+        return rules().getReturnWindowDays();
     }
 
-    @Transactional(readOnly = true)
     public int getReturnWindowHours() {
-        return getCurrentRules().getReturnWindowHours();
+        return rules().getReturnWindowHours();
     }
 
-    @Transactional(readOnly = true)
     public int getReturnWindowMinutes() {
-        return getCurrentRules().getReturnWindowMinutes();
+        return rules().getReturnWindowMinutes();
     }
 
-    @Transactional(readOnly = true)
     public long getReturnWindowTotalMinutes() {
-        OrderRuleConfig config = getCurrentRules();
+        OrderRuleConfig config = rules();
         return (long) config.getReturnWindowDays() * 24L * 60L
                 + (long) config.getReturnWindowHours() * 60L
                 + config.getReturnWindowMinutes();
     }
 
-    @Transactional(readOnly = true)
+    public int getAcceptWindowHours() {
+        return rules().getAcceptWindowHours();
+    }
+
+    public int getShipWindowHours() {
+        return rules().getShipWindowHours();
+    }
+
     public long getBikePostFee() {
-        return getCurrentRules().getBikePostFee();
+        return rules().getBikePostFee();
     }
 
-    @Transactional(readOnly = true)
     public long getInspectionFee() {
-        return getCurrentRules().getInspectionFee();
+        return rules().getInspectionFee();
     }
 
     private void validateCommissionRatePercent(Double value) {
@@ -193,6 +335,12 @@ public class OrderRuleConfigService {
         }
     }
 
+    private void validateOrderTimeoutHours(String name, Integer value) {
+        if (value < 0 || value > 720) {
+            throw new IllegalArgumentException(name + " must be between 0 and 720");
+        }
+    }
+
     private void validateSellerUpgradeFee(Long value) {
         if (value < 0 || value > 10_000_000_000L) {
             throw new IllegalArgumentException("sellerUpgradeFee must be between 0 and 10000000000");
@@ -219,9 +367,30 @@ public class OrderRuleConfigService {
         config.setReturnWindowDays(defaultReturnWindowDays);
         config.setReturnWindowHours(defaultReturnWindowHours);
         config.setReturnWindowMinutes(defaultReturnWindowMinutes);
+        config.setAcceptWindowHours(defaultAcceptWindowHours);
+        config.setShipWindowHours(defaultShipWindowHours);
         config.setBikePostFee(DEFAULT_BIKE_POST_FEE);
         config.setInspectionFee(DEFAULT_INSPECTION_FEE);
         return config;
     }
-}
 
+    private static OrderRuleConfig copyOf(OrderRuleConfig source) {
+        OrderRuleConfig copy = new OrderRuleConfig();
+        copy.setId(source.getId());
+        copy.setCommissionRate(source.getCommissionRate());
+        copy.setSellerUpgradeFee(source.getSellerUpgradeFee());
+        copy.setReturnWindowDays(source.getReturnWindowDays());
+        copy.setReturnWindowHours(source.getReturnWindowHours());
+        copy.setReturnWindowMinutes(source.getReturnWindowMinutes());
+        copy.setAcceptWindowHours(source.getAcceptWindowHours());
+        copy.setShipWindowHours(source.getShipWindowHours());
+        copy.setBikePostFee(source.getBikePostFee());
+        copy.setInspectionFee(source.getInspectionFee());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+
+    private record Snapshot(OrderRuleConfig rules, long expiresAt) {
+    }
+}
@@ -1,2 +1,219 @@
-// File này đã được loại bỏ vì các class Order, OrderService, OrderRuleConfigService không còn tồn tại hoặc không cần thiết.
+package com.bikeexchange.service.service;
 
+import com.bikeexchange.model.Order;
+import com.bikeexchange.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Completes DELIVERED orders whose return window has passed and releases escrow to the seller.
+ *
+ * Expired orders are read in batches ordered by (delivered_at, id). Each order is then
+ * completed in its own transaction that claims the row with FOR UPDATE SKIP LOCKED, so
+ * several instances can run the job at once: an order held by another node (or by a buyer
+ * confirming receipt) is skipped, and the status is re-checked under the lock before paying.
+ *
+ * Also cancels and refunds orders the seller did not accept (ESCROWED past the accept
+ * window) or ship (ACCEPTED past the ship window), the same way. That job runs on one
+ * instance at a time under a {@link JobLeaseService lease}, renewed per batch; refunds are
+ * additionally guarded by the row lock, the status re-check and the ledger's settle key.
+ */
+@Component
+public class OrderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderScheduler.class);
+
+    private static final String METRIC_PREFIX = "orders.auto_complete.";
+    private static final String CANCEL_METRIC_PREFIX = "orders.auto_cancel.";
+    private static final String AUTO_CANCEL_JOB = "orders.auto-cancel";
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRuleConfigService orderRuleConfigService;
+
+    @Autowired
+    private OperationalMetrics metrics;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Value("${app.orders.auto-complete.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.orders.auto-complete.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.orders.auto-complete.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.orders.auto-cancel.enabled:true}")
+    private boolean autoCancelEnabled;
+
+    @Value("${app.orders.auto-cancel.batch-size:100}")
+    private int cancelBatchSize;
+
+    @Value("${app.orders.auto-cancel.max-batches-per-run:20}")
+    private int cancelMaxBatchesPerRun;
+
+    @Value("${app.orders.auto-cancel.lease-ms:120000}")
+    private long cancelLeaseMs;
+
+    @Scheduled(initialDelayString = "${app.orders.auto-complete.initial-delay-ms:30000}",
+            fixedDelayString = "${app.orders.auto-complete.interval-ms:60000}")
+    public void autoCompleteExpiredOrders() {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime deadline = now.minusMinutes(orderRuleConfigService.getReturnWindowTotalMinutes());
+
+        int completed = 0;
+        int skipped = 0;
+        int failed = 0;
+        LocalDateTime afterDeliveredAt = START;
+        Long afterId = 0L;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Object[]> keys = orderRepository.findExpiredDeliveredOrderKeys(deadline, afterDeliveredAt, afterId,
+                    PageRequest.of(0, batchSize));
+            for (Object[] key : keys) {
+                Long orderId = (Long) key[0];
+                try {
+                    if (orderService.autoCompleteExpiredOrder(orderId, deadline)) {
+                        completed++;
+                    } else {
+                        skipped++;
+                    }
+                } catch (RuntimeException e) {
+                    failed++;
+                    log.error("Auto-completion failed for order {}: {}", orderId, e.getMessage());
+                }
+            }
+            if (keys.size() < batchSize) {
+                break;
+            }
+            Object[] last = keys.get(keys.size() - 1);
+            afterDeliveredAt = (LocalDateTime) last[1];
+            afterId = (Long) last[0];
+        }
+
+        long elapsedMs = System.currentTimeMillis() - startedAt;
+        metrics.increment(METRIC_PREFIX + "runs");
+        metrics.add(METRIC_PREFIX + "completed", completed);
+        metrics.add(METRIC_PREFIX + "skipped", skipped);
+        metrics.add(METRIC_PREFIX + "failed", failed);
+        metrics.set(METRIC_PREFIX + "last_run_ms", elapsedMs);
+        metrics.set(METRIC_PREFIX + "last_run_completed", completed);
+        metrics.set(METRIC_PREFIX + "last_run_at_epoch_ms", startedAt);
+
+        // Lag: how long the oldest still-expired order has been waiting past its window
+        LocalDateTime oldest = orderRepository.findOldestExpiredDeliveredAt(deadline);
+        metrics.set(METRIC_PREFIX + "backlog", orderRepository.countExpiredDeliveredOrders(deadline));
+        metrics.set(METRIC_PREFIX + "lag_seconds",
+                oldest == null ? 0 : Duration.between(oldest, deadline).getSeconds());
+
+        if (completed > 0 || failed > 0) {
+            log.info("Auto-completed {} expired orders in {} ms ({} skipped, {} failed)",
+                    completed, elapsedMs, skipped, failed);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.orders.auto-cancel.initial-delay-ms:45000}",
+            fixedDelayString = "${app.orders.auto-cancel.interval-ms:300000}")
+    public void autoCancelOverdueOrders() {
+        if (!autoCancelEnabled) {
+            return;
+        }
+        Duration lease = Duration.ofMillis(cancelLeaseMs);
+        if (!jobLeaseService.tryAcquire(AUTO_CANCEL_JOB, lease)) {
+            metrics.increment(CANCEL_METRIC_PREFIX + "lease_busy");
+            return;
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+            int acceptWindowHours = orderRuleConfigService.getAcceptWindowHours();
+            int shipWindowHours = orderRuleConfigService.getShipWindowHours();
+
+            // cancelled, skipped, failed
+            int[] counts = new int[3];
+            boolean leaseHeld = true;
+            if (acceptWindowHours > 0) {
+                leaseHeld = cancelOverdue(Order.OrderStatus.ESCROWED, now.minusHours(acceptWindowHours), lease, counts);
+            }
+            if (leaseHeld && shipWindowHours > 0) {
+                cancelOverdue(Order.OrderStatus.ACCEPTED, now.minusHours(shipWindowHours), lease, counts);
+            }
+
+            long elapsedMs = System.currentTimeMillis() - startedAt;
+            metrics.increment(CANCEL_METRIC_PREFIX + "runs");
+            metrics.add(CANCEL_METRIC_PREFIX + "cancelled", counts[0]);
+            metrics.add(CANCEL_METRIC_PREFIX + "skipped", counts[1]);
+            metrics.add(CANCEL_METRIC_PREFIX + "failed", counts[2]);
+            metrics.set(CANCEL_METRIC_PREFIX + "last_run_ms", elapsedMs);
+            metrics.set(CANCEL_METRIC_PREFIX + "last_run_cancelled", counts[0]);
+            metrics.set(CANCEL_METRIC_PREFIX + "last_run_at_epoch_ms", startedAt);
+
+            if (counts[0] > 0 || counts[2] > 0) {
+                log.info("Auto-cancelled {} overdue orders in {} ms ({} skipped, {} failed)",
+                        counts[0], elapsedMs, counts[1], counts[2]);
+            }
+        } finally {
+            jobLeaseService.release(AUTO_CANCEL_JOB);
+        }
+    }
+
+    /**
+     * Cancels overdue orders in {@code status} batch by batch, each order in its own
+     * transaction. Returns false if the lease was lost, in which case the run stops.
+     */
+    private boolean cancelOverdue(Order.OrderStatus status, LocalDateTime deadline, Duration lease, int[] counts) {
+        LocalDateTime afterAt = START;
+        Long afterId = 0L;
+        for (int batch = 0; batch < cancelMaxBatchesPerRun; batch++) {
+            if (batch > 0 && !jobLeaseService.tryAcquire(AUTO_CANCEL_JOB, lease)) {
+                log.warn("Lost the auto-cancel lease; stopping this run");
+                return false;
+            }
+            PageRequest page = PageRequest.of(0, cancelBatchSize);
+            List<Object[]> keys = status == Order.OrderStatus.ACCEPTED
+                    ? orderRepository.findUnshippedOrderKeys(deadline, afterAt, afterId, page)
+                    : orderRepository.findUnacceptedOrderKeys(deadline, afterAt, afterId, page);
+            for (Object[] key : keys) {
+                Long orderId = (Long) key[0];
+                try {
+                    if (orderService.autoCancelOverdueOrder(orderId, status, deadline)) {
+                        counts[0]++;
+                    } else {
+                        counts[1]++;
+                    }
+                } catch (RuntimeException e) {
+                    counts[2]++;
+                    log.error("Auto-cancel failed for order {}: {}", orderId, e.getMessage());
+                }
+            }
+            if (keys.size() < cancelBatchSize) {
+                break;
+            }
+            Object[] last = keys.get(keys.size() - 1);
+            afterAt = (LocalDateTime) last[1];
+            afterId = (Long) last[0];
+        }
+        return true;
+    }
+}
@@ -0,0 +1,148 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.dto.response.CursorPage;
+import com.bikeexchange.dto.response.OrderResponse;
+import com.bikeexchange.model.Order;
+import com.bikeexchange.repository.OrderRepository;
+import com.bikeexchange.util.KeysetCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Admin order listing. Filters are applied in the query and pages are read with keyset
+ * pagination on (sort key, id), served by the (status, created_at) and
+ * (buyer_id, created_at) indexes on orders.
+ */
+@Service
+public class OrderSearchService {
+
+    public static final String SORT_NEWEST = "newest";
+    public static final String SORT_OLDEST = "oldest";
+    public static final String SORT_AMOUNT_DESC = "amount_desc";
+    public static final String SORT_AMOUNT_ASC = "amount_asc";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${app.listing.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${app.listing.page-size.max:100}")
+    private int maxPageSize;
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponse> searchOrders(String status, Long buyerId, Long sellerId,
+            String from, String to, Long minAmount, Long maxAmount,
+            String sort, String cursor, Integer size, long returnWindowTotalMinutes) {
+        Specification<Order> filters = Specification.where(null);
+        List<Order.OrderStatus> statuses = parseStatuses(status);
+        if (!statuses.isEmpty()) {
+            filters = filters.and((root, query, cb) -> root.get("status").in(statuses));
+        }
+        if (buyerId != null) {
+            filters = filters.and((root, query, cb) -> cb.equal(root.get("buyer").get("id"), buyerId));
+        }
+        if (sellerId != null) {
+            filters = filters.and((root, query, cb) -> cb.equal(root.get("bike").get("seller").get("id"), sellerId));
+        }
+        LocalDateTime createdFrom = parseDate(from, false);
+        if (createdFrom != null) {
+            filters = filters.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), createdFrom));
+        }
+        LocalDateTime createdTo = parseDate(to, true);
+        if (createdTo != null) {
+            filters = filters.and((root, query, cb) -> cb.lessThan(root.get("createdAt"), createdTo));
+        }
+        if (minAmount != null) {
+            filters = filters.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amountPoints"), minAmount));
+        }
+        if (maxAmount != null) {
+            filters = filters.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("amountPoints"), maxAmount));
+        }
+        return findPage(filters, sort, cursor, size).map(o -> OrderResponse.fromEntity(o, returnWindowTotalMinutes));
+    }
+
+    /**
+     * A keyset page of orders in one status, newest first.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Order> findByStatus(Order.OrderStatus status, String cursor, Integer size) {
+        return findPage((root, query, cb) -> cb.equal(root.get("status"), status), SORT_NEWEST, cursor, size);
+    }
+
+    private CursorPage<Order> findPage(Specification<Order> filters, String sort, String cursor, Integer size) {
+        String kind = sort == null || sort.isBlank() ? SORT_NEWEST : sort.trim().toLowerCase(Locale.ROOT);
+        boolean byAmount;
+        boolean ascending;
+        switch (kind) {
+            case SORT_NEWEST -> { byAmount = false; ascending = false; }
+            case SORT_OLDEST -> { byAmount = false; ascending = true; }
+            case SORT_AMOUNT_DESC -> { byAmount = true; ascending = false; }
+            case SORT_AMOUNT_ASC -> { byAmount = true; ascending = true; }
+            default -> throw new IllegalArgumentException("Invalid sort: " + sort);
+        }
+
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        KeysetCursor after = KeysetCursor.decode(cursor, kind, 2);
+        Object afterKey = after == null ? null : (byAmount ? after.getLong(0) : after.getDateTime(0));
+        Long afterId = after == null ? null : after.getLong(1);
+
+        // One row beyond the page tells whether a next page exists without counting
+        List<Order> rows = orderRepository.findPage(filters, byAmount ? "amountPoints" : "createdAt", ascending,
+                afterKey, afterId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<Order> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            Order last = items.get(items.size() - 1);
+            nextCursor = KeysetCursor.encode(kind, byAmount ? last.getAmountPoints() : last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    private static List<Order.OrderStatus> parseStatuses(String status) {
+        if (status == null || status.isBlank()) {
+            return List.of();
+        }
+        try {
+            return Arrays.stream(status.split(","))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .map(s -> Order.OrderStatus.valueOf(s.toUpperCase(Locale.ROOT)))
+                    .distinct()
+                    .toList();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid order status");
+        }
+    }
+
+    /**
+     * Accepts an ISO date ("2024-05-01") or date-time. A bare end date includes that whole day.
+     */
+    private static LocalDateTime parseDate(String value, boolean endOfRange) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            if (trimmed.length() == 10) {
+                LocalDate date = LocalDate.parse(trimmed);
+                return endOfRange ? date.plusDays(1).atStartOfDay() : date.atStartOfDay();
+            }
+            return LocalDateTime.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package com.bikeexchange.service.service;
 
+import com.bikeexchange.config.RetryOnDeadlock;
 import com.bikeexchange.dto.response.BuyerPurchaseHistoryResponse;
 import com.bikeexchange.dto.response.HistoryResponse;
 import com.bikeexchange.dto.response.OrderHistoryDetailResponse;
 import com.bikeexchange.dto.response.OrderResponse;
 import com.bikeexchange.dto.response.ReviewSummaryResponse;
 import com.bikeexchange.dto.response.SellerSalesHistoryResponse;
-import com.bikeexchange.exception.InsufficientBalanceException;
 import com.bikeexchange.exception.InvalidOrderStatusException;
 import com.bikeexchange.exception.ListingNotAvailableException;
 import com.bikeexchange.exception.ResourceNotFoundException;
@@ -16,13 +16,14 @@ import com.bikeexchange.model.Order;
 import com.bikeexchange.model.PointTransaction;
 import com.bikeexchange.model.Review;
 import com.bikeexchange.model.User;
-import com.bikeexchange.model.UserWallet;
 import com.bikeexchange.repository.BikeRepository;
 import com.bikeexchange.repository.HistoryRepository;
 import com.bikeexchange.repository.OrderRepository;
 import com.bikeexchange.repository.PointTransactionRepository;
 import com.bikeexchange.repository.ReviewRepository;
-import com.bikeexchange.repository.UserWalletRepository;
+import com.bikeexchange.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
@@ -39,6 +40,7 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
+@RetryOnDeadlock
 public class OrderService {
 
     private static final Pattern GHN_TRACKING_PATTERN = Pattern.compile("^GHN[0-9A-Z]{8,20}$", Pattern.CASE_INSENSITIVE);
@@ -46,11 +48,17 @@ public class OrderService {
     private static final Pattern VTP_TRACKING_PATTERN = Pattern.compile("^VTP[0-9A-Z]{6,20}$", Pattern.CASE_INSENSITIVE);
     private static final Pattern JT_TRACKING_PATTERN = Pattern.compile("^(JT[0-9A-Z]{8,20}|JNT[0-9A-Z]{8,20})$", Pattern.CASE_INSENSITIVE);
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
-    private UserWalletRepository walletRepository;
+    private UserRepository userRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
 
     @Autowired
     private BikeRepository bikeRepository;
@@ -67,6 +75,9 @@ public class OrderService {
     @Autowired
     private HistoryService historyService;
 
+    @Autowired
+    private PlatformStatsService platformStatsService;
+
     @Autowired
     private OrderRuleConfigService orderRuleConfigService;
 
@@ -101,34 +112,37 @@ public class OrderService {
             return existingOrder;
         }
 
-        Bike bike = bikeRepository.findByIdForUpdate(bikeId)
+        Bike bike = bikeRepository.findById(bikeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Bike not found"));
 
-        if (bike.getStatus() != Bike.BikeStatus.ACTIVE && bike.getStatus() != Bike.BikeStatus.VERIFIED) {
+        Bike.BikeStatus listedStatus = bike.getStatus();
+        if (listedStatus != Bike.BikeStatus.ACTIVE && listedStatus != Bike.BikeStatus.VERIFIED) {
             throw new ListingNotAvailableException("Bike is not available for purchase");
         }
-
-        UserWallet buyerWallet = walletRepository.findByUserIdForUpdate(buyerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Buyer wallet not found"));
-
-        if (buyerWallet.getAvailablePoints() < bike.getPricePoints()) {
-            throw new InsufficientBalanceException("Not enough points");
+        Long price = bike.getPricePoints();
+
+        // Claimed before any wallet write, so buyers who lose the race touch nothing. Also before
+        // the order insert: its foreign key check would otherwise take a shared lock on the bike
+        // row that two buyers then both try to upgrade
+        reserveBike(bike, listedStatus, price);
+
+        // The escrow key follows the idempotency key; a duplicate means another request with
+        // this key got past the order lookup above and is placing the same order
+        if (!ledgerService.post("order:" + effectiveIdempotencyKey + ":escrow", "ESCROW_HOLD", "Bike: " + bikeId,
+                "Not enough points",
+                LedgerService.available(buyerId, -price),
+                LedgerService.frozen(buyerId, price))) {
+            throw new IllegalStateException("An order with this idempotency key is already being placed");
         }
 
-        buyerWallet.setAvailablePoints(buyerWallet.getAvailablePoints() - bike.getPricePoints());
-        buyerWallet.setFrozenPoints(buyerWallet.getFrozenPoints() + bike.getPricePoints());
-        walletRepository.save(buyerWallet);
-
-        bike.setStatus(Bike.BikeStatus.RESERVED);
-        bikeRepository.save(bike);
-
-        savePointTransaction(buyerWallet.getUser(), bike.getPricePoints(),
+        User buyer = userRepository.getReferenceById(buyerId);
+        savePointTransaction(buyer, price,
             PointTransaction.TransactionType.ESCROW_HOLD, "OrderKey: " + effectiveIdempotencyKey);
 
         Order order = new Order();
-        order.setBuyer(buyerWallet.getUser());
+        order.setBuyer(buyer);
         order.setBike(bike);
-        order.setAmountPoints(bike.getPricePoints());
+        order.setAmountPoints(price);
         order.setIdempotencyKey(effectiveIdempotencyKey);
         order.setStatus(Order.OrderStatus.ESCROWED);
 
@@ -138,6 +152,23 @@ public class OrderService {
         return saved;
     }
 
+    /**
+     * Claims the bike for this order with one conditional UPDATE, the first statement that
+     * locks the bike row. Its row count decides the winner: a bike that another buyer claimed,
+     * or that was withdrawn or repriced since it was read, updates nothing. Concurrent buyers of
+     * one bike are already admitted one at a time by the purchase admission gate. The bulk
+     * update bypasses the stats listener.
+     */
+    private void reserveBike(Bike bike, Bike.BikeStatus listedStatus, Long price) {
+        if (bikeRepository.claimForOrder(bike.getId(), listedStatus, price,
+                Bike.BikeStatus.RESERVED, LocalDateTime.now()) == 0) {
+            throw new ListingNotAvailableException("Bike is not available for purchase");
+        }
+        platformStatsService.add(PlatformStatsService.BIKE_STATUS + listedStatus, -1);
+        platformStatsService.add(PlatformStatsService.BIKE_STATUS + Bike.BikeStatus.RESERVED, 1);
+        entityManager.refresh(bike);
+    }
+
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public Order cancelOrder(Long orderId, Long buyerId) {
         Order order = orderRepository.findByIdForUpdate(orderId)
@@ -298,19 +329,16 @@ public class OrderService {
         double commissionRate = orderRuleConfigService.getCommissionRate();
         Long sellerRevenue = Math.round(total * (1.0d - commissionRate));
 
-        UserWallet buyerWallet = walletRepository.findByUserIdForUpdate(order.getBuyer().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Buyer wallet not found"));
-        UserWallet sellerWallet = walletRepository.findByUserIdForUpdate(order.getBike().getSeller().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Seller wallet not found"));
-
-        buyerWallet.setFrozenPoints(buyerWallet.getFrozenPoints() - total);
-        walletRepository.save(buyerWallet);
-
-        sellerWallet.setAvailablePoints(sellerWallet.getAvailablePoints() + sellerRevenue);
-        walletRepository.save(sellerWallet);
-
-        savePointTransaction(sellerWallet.getUser(), sellerRevenue,
+        User seller = order.getBike().getSeller();
+        if (!ledgerService.post("order:" + order.getId() + ":settle", "ESCROW_RELEASE", referenceLabel,
+                LedgerService.frozen(order.getBuyer().getId(), -total),
+                LedgerService.available(seller.getId(), sellerRevenue),
+                LedgerService.platformRevenue(total - sellerRevenue))) {
+            throw new IllegalStateException("Order escrow was already settled");
+        }
+        savePointTransaction(seller, sellerRevenue,
                 PointTransaction.TransactionType.EARN, referenceLabel);
+        platformStatsService.add(PlatformStatsService.ORDER_COMMISSION_POINTS, total - sellerRevenue);
 
         order.setStatus(Order.OrderStatus.COMPLETED);
         Bike bike = order.getBike();
@@ -320,6 +348,50 @@ public class OrderService {
         historyService.log("order", order.getId(), "completed", order.getBike().getSeller().getId(), null);
     }
 
+    /**
+     * Completes one DELIVERED order whose return window ended before {@code deadline}.
+     * Returns false when the order is locked by another transaction or no longer eligible.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public boolean autoCompleteExpiredOrder(Long orderId, LocalDateTime deadline) {
+        Order order = orderRepository.findByIdForUpdateSkipLocked(orderId).orElse(null);
+        if (order == null || order.getStatus() != Order.OrderStatus.DELIVERED
+                || order.getDeliveredAt() == null || !order.getDeliveredAt().isBefore(deadline)) {
+            return false;
+        }
+        releaseToSeller(order, "Auto-completed after return window for Order: " + orderId);
+        return true;
+    }
+
+    /**
+     * Cancels one order the seller left in {@code status} (ESCROWED or ACCEPTED) since before
+     * {@code deadline} and refunds the buyer. Returns false when the order is locked by
+     * another transaction or was accepted, shipped or cancelled in the meantime.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public boolean autoCancelOverdueOrder(Long orderId, Order.OrderStatus status, LocalDateTime deadline) {
+        Order order = orderRepository.findByIdForUpdateSkipLocked(orderId).orElse(null);
+        if (order == null || order.getStatus() != status) {
+            return false;
+        }
+        LocalDateTime since = status == Order.OrderStatus.ACCEPTED ? order.getAcceptedAt() : order.getCreatedAt();
+        if (since == null || !since.isBefore(deadline)) {
+            return false;
+        }
+        String reason = status == Order.OrderStatus.ACCEPTED ? "not shipped in time" : "not accepted in time";
+        refundToBuyer(order, "Auto-cancelled (" + reason + ") Order: " + orderId);
+
+        Bike bike = order.getBike();
+        bike.setStatus(Bike.BikeStatus.ACTIVE);
+        bikeRepository.save(bike);
+
+        order.setStatus(Order.OrderStatus.CANCELLED);
+        orderRepository.save(order);
+        historyService.log("order", orderId, "auto_cancelled", null, reason);
+        historyService.log("bike", bike.getId(), "available", null, null);
+        return true;
+    }
+
     public List<Order> findExpiredDeliveredOrders(LocalDateTime deadline) {
         return orderRepository.findExpiredDeliveredOrders(deadline);
     }
@@ -421,12 +493,13 @@ public class OrderService {
     // package-accessible so DisputeService can reuse without duplicating wallet logic
     void refundToBuyer(Order order, String referenceLabel) {
         Long amount = order.getAmountPoints();
-        UserWallet buyerWallet = walletRepository.findByUserIdForUpdate(order.getBuyer().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Buyer wallet not found"));
-        buyerWallet.setFrozenPoints(buyerWallet.getFrozenPoints() - amount);
-        buyerWallet.setAvailablePoints(buyerWallet.getAvailablePoints() + amount);
-        walletRepository.save(buyerWallet);
-        savePointTransaction(buyerWallet.getUser(), amount,
+        Long buyerId = order.getBuyer().getId();
+        // Shares the settle key with releaseToSeller, so an order's escrow is paid out exactly once
+        if (!ledgerService.post("order:" + order.getId() + ":settle", "ESCROW_REFUND", referenceLabel,
+                LedgerService.frozen(buyerId, -amount), LedgerService.available(buyerId, amount))) {
+            throw new IllegalStateException("Order escrow was already settled");
+        }
+        savePointTransaction(order.getBuyer(), amount,
                 PointTransaction.TransactionType.ESCROW_RELEASE, referenceLabel);
     }
 
@@ -0,0 +1,244 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.model.*;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps platform_stats in step with entity changes.
+ *
+ * Every insert/update/delete of a tracked entity is turned into counter deltas using the
+ * old and new state Hibernate already has. Deltas are accumulated per session and written
+ * in one multi-row upsert just before the transaction commits (after the final flush), so
+ * counters commit or roll back together with the change that caused them.
+ *
+ * Only bikes, orders, users, inspection requests, disputes, wallets and point transactions
+ * feed counters; other entities are skipped before any state is read. A transaction adds the
+ * upsert only when one of those changes moves a counter (a status or role transition, a wallet
+ * balance, an escrowed amount, a pending withdrawal), so chat, media, ledger and history writes
+ * never touch platform_stats. Wallet-moving transactions therefore always carry one extra
+ * statement; that write is expected and replaces the SUM/COUNT queries of the admin dashboard.
+ *
+ * Changes made with bulk JPQL/SQL updates bypass this listener and must be recorded
+ * explicitly through {@link PlatformStatsService#add}.
+ */
+public class PlatformStatsEventListener implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener {
+
+    private static final int SLOTS = 8;
+
+    private static final List<Class<?>> TRACKED = List.of(Bike.class, Order.class, User.class,
+            InspectionRequest.class, Dispute.class, UserWallet.class, PointTransaction.class);
+
+    private static final Map<SharedSessionContractImplementor, Map<String, Long>> PENDING = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (!tracked(event.getEntity())) {
+            return;
+        }
+        record(event.getSession(), collect(event.getEntity(), event.getPersister(), null, event.getState()));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!tracked(event.getEntity())) {
+            return;
+        }
+        if (event.getOldState() == null) {
+            // Detached update without a snapshot; the reconciliation job corrects any drift
+            return;
+        }
+        record(event.getSession(), collect(event.getEntity(), event.getPersister(), event.getOldState(), event.getState()));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (!tracked(event.getEntity())) {
+            return;
+        }
+        record(event.getSession(), collect(event.getEntity(), event.getPersister(), event.getDeletedState(), null));
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static boolean tracked(Object entity) {
+        for (Class<?> type : TRACKED) {
+            if (type.isInstance(entity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, Long> collect(Object entity, EntityPersister persister, Object[] oldState, Object[] newState) {
+        Map<String, Long> deltas = new HashMap<>();
+        State before = new State(persister, oldState);
+        State after = new State(persister, newState);
+
+        if (entity instanceof Bike) {
+            countTransition(deltas, PlatformStatsService.BIKE_STATUS, before.get("status"), after.get("status"));
+        } else if (entity instanceof Order) {
+            countTransition(deltas, PlatformStatsService.ORDER_STATUS, before.get("status"), after.get("status"));
+            addSum(deltas, PlatformStatsService.ORDER_ESCROW_POINTS,
+                    escrowed(before), escrowed(after));
+        } else if (entity instanceof User) {
+            countTransition(deltas, PlatformStatsService.USER_ROLE, before.get("role"), after.get("role"));
+        } else if (entity instanceof InspectionRequest) {
+            countTransition(deltas, PlatformStatsService.INSPECTION_STATUS, before.get("status"), after.get("status"));
+            addSum(deltas, PlatformStatsService.INSPECTION_HELD_FEE_POINTS,
+                    heldInspectionFee(before), heldInspectionFee(after));
+        } else if (entity instanceof Dispute) {
+            countTransition(deltas, PlatformStatsService.DISPUTE_STATUS, before.get("status"), after.get("status"));
+        } else if (entity instanceof UserWallet) {
+            addSum(deltas, PlatformStatsService.WALLET_AVAILABLE_POINTS,
+                    before.getLong("availablePoints"), after.getLong("availablePoints"));
+            addSum(deltas, PlatformStatsService.WALLET_FROZEN_POINTS,
+                    before.getLong("frozenPoints"), after.getLong("frozenPoints"));
+        } else if (entity instanceof PointTransaction) {
+            addSum(deltas, PlatformStatsService.WITHDRAWAL_PENDING_COUNT,
+                    pendingWithdrawal(before) ? 1 : 0, pendingWithdrawal(after) ? 1 : 0);
+            addSum(deltas, PlatformStatsService.WITHDRAWAL_PENDING_POINTS,
+                    pendingWithdrawal(before) ? before.getLong("amount") : 0,
+                    pendingWithdrawal(after) ? after.getLong("amount") : 0);
+        }
+        return deltas;
+    }
+
+    private static long escrowed(State state) {
+        Object status = state.get("status");
+        return status != null && PlatformStatsService.ESCROW_ORDER_STATUSES.contains(status)
+                ? state.getLong("amountPoints") : 0;
+    }
+
+    private static long heldInspectionFee(State state) {
+        Object status = state.get("status");
+        return status != null && PlatformStatsService.ACTIVE_INSPECTION_STATUSES.contains(status)
+                ? state.getLong("feePoints") : 0;
+    }
+
+    private static boolean pendingWithdrawal(State state) {
+        return state.exists()
+                && state.get("type") == PointTransaction.TransactionType.WITHDRAW
+                && state.get("status") == PointTransaction.TransactionStatus.PENDING;
+    }
+
+    private static void countTransition(Map<String, Long> deltas, String prefix, Object before, Object after) {
+        String beforeKey = before == null ? null : prefix + before;
+        String afterKey = after == null ? null : prefix + after;
+        if (beforeKey != null && beforeKey.equals(afterKey)) {
+            return;
+        }
+        if (beforeKey != null) {
+            deltas.merge(beforeKey, -1L, Long::sum);
+        }
+        if (afterKey != null) {
+            deltas.merge(afterKey, 1L, Long::sum);
+        }
+    }
+
+    private static void addSum(Map<String, Long> deltas, String key, long before, long after) {
+        if (before != after) {
+            deltas.merge(key, after - before, Long::sum);
+        }
+    }
+
+    /**
+     * Adds deltas to the current transaction of the given session; written before commit.
+     */
+    static void record(SessionImplementor session, Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<String, Long> pending = PENDING.get(session);
+        if (pending == null) {
+            pending = new HashMap<>();
+            PENDING.put(session, pending);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) PlatformStatsEventListener::flush);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> PENDING.remove(s));
+        }
+        Map<String, Long> target = pending;
+        deltas.forEach((key, delta) -> target.merge(key, delta, Long::sum));
+    }
+
+    private static void flush(SessionImplementor session) {
+        Map<String, Long> pending = PENDING.remove(session);
+        if (pending == null) {
+            return;
+        }
+        // Sorted keys keep lock acquisition order stable across transactions
+        Map<String, Long> deltas = new TreeMap<>();
+        pending.forEach((key, delta) -> {
+            if (delta != 0) {
+                deltas.put(key, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        StringBuilder sql = new StringBuilder("INSERT INTO platform_stats (stat_key, slot, stat_value, updated_at) VALUES ");
+        for (int i = 0; i < deltas.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE stat_value = stat_value + VALUES(stat_value), updated_at = VALUES(updated_at)");
+
+        int slot = ThreadLocalRandom.current().nextInt(SLOTS);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+                    ps.setString(index++, entry.getKey());
+                    ps.setInt(index++, slot);
+                    ps.setLong(index++, entry.getValue());
+                    ps.setTimestamp(index++, now);
+                }
+                ps.executeUpdate();
+            }
+        });
+    }
+
+    private static final class State {
+        private final EntityPersister persister;
+        private final Object[] values;
+
+        State(EntityPersister persister, Object[] values) {
+            this.persister = persister;
+            this.values = values;
+        }
+
+        boolean exists() {
+            return values != null;
+        }
+
+        Object get(String property) {
+            if (values == null) {
+                return null;
+            }
+            return values[persister.getEntityMetamodel().getPropertyIndex(property)];
+        }
+
+        long getLong(String property) {
+            Object value = get(property);
+            return value instanceof Number number ? number.longValue() : 0L;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.dto.response.GroupCount;
+import com.bikeexchange.model.InspectionRequest;
+import com.bikeexchange.model.Order;
+import com.bikeexchange.model.PointTransaction;
+import com.bikeexchange.repository.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * O(1) platform metrics backed by the platform_stats table.
+ *
+ * Counters are maintained by {@link PlatformStatsEventListener} as entities change, plus
+ * explicit {@link #add} calls for amounts that are not an entity column (commission) or
+ * changes made with bulk updates. A periodic reconciliation recomputes every counter from
+ * the source tables, reports drift and corrects it.
+ */
+@Service
+public class PlatformStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(PlatformStatsService.class);
+
+    public static final String USER_ROLE = "users.role.";
+    public static final String BIKE_STATUS = "bikes.status.";
+    public static final String ORDER_STATUS = "orders.status.";
+    public static final String ORDER_ESCROW_POINTS = "orders.escrow_points";
+    public static final String ORDER_COMMISSION_POINTS = "orders.commission_points";
+    public static final String INSPECTION_STATUS = "inspections.status.";
+    public static final String INSPECTION_HELD_FEE_POINTS = "inspections.held_fee_points";
+    public static final String DISPUTE_STATUS = "disputes.status.";
+    public static final String WALLET_AVAILABLE_POINTS = "wallets.available_points";
+    public static final String WALLET_FROZEN_POINTS = "wallets.frozen_points";
+    public static final String WITHDRAWAL_PENDING_COUNT = "withdrawals.pending_count";
+    public static final String WITHDRAWAL_PENDING_POINTS = "withdrawals.pending_points";
+
+    /** Orders whose amount is held in the buyer's frozen balance. */
+    public static final List<Order.OrderStatus> ESCROW_ORDER_STATUSES = List.of(
+            Order.OrderStatus.ESCROWED,
+            Order.OrderStatus.ACCEPTED,
+            Order.OrderStatus.SHIPPED,
+            Order.OrderStatus.DELIVERED,
+            Order.OrderStatus.RETURN_REQUESTED,
+            Order.OrderStatus.DISPUTED);
+
+    /** Inspections whose fee is still held in the seller's frozen balance. */
+    public static final List<InspectionRequest.RequestStatus> ACTIVE_INSPECTION_STATUSES = List.of(
+            InspectionRequest.RequestStatus.REQUESTED,
+            InspectionRequest.RequestStatus.ASSIGNED,
+            InspectionRequest.RequestStatus.IN_PROGRESS,
+            InspectionRequest.RequestStatus.INSPECTED);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformStatRepository platformStatRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BikeRepository bikeRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private InspectionRepository inspectionRepository;
+
+    @Autowired
+    private DisputeRepository disputeRepository;
+
+    @Autowired
+    private UserWalletRepository userWalletRepository;
+
+    @Autowired
+    private PointTransactionRepository pointTransactionRepository;
+
+    @Autowired
+    private OrderRuleConfigService orderRuleConfigService;
+
+    private volatile Map<String, Object> lastReconciliation = Map.of();
+
+    /**
+     * Adds to a counter as part of the current transaction.
+     */
+    public void add(String key, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            log.warn("Ignoring stats delta {} for {} outside a transaction", delta, key);
+            return;
+        }
+        PlatformStatsEventListener.record(entityManager.unwrap(SessionImplementor.class), Map.of(key, delta));
+    }
+
+    /**
+     * Current value of every counter.
+     */
+    public Map<String, Long> readAll() {
+        Map<String, Long> counters = new HashMap<>();
+        for (GroupCount row : platformStatRepository.sumByKey()) {
+            counters.put(String.valueOf(row.getKey()), row.getTotal());
+        }
+        return counters;
+    }
+
+    /**
+     * Counters under a prefix, keyed by the remainder (e.g. "orders.status." -> {COMPLETED=..}).
+     */
+    public static Map<String, Long> withPrefix(Map<String, Long> counters, String prefix) {
+        Map<String, Long> result = new HashMap<>();
+        counters.forEach((key, value) -> {
+            if (key.startsWith(prefix) && value != 0) {
+                result.put(key.substring(prefix.length()), value);
+            }
+        });
+        return result;
+    }
+
+    public Map<String, Object> getLastReconciliation() {
+        return lastReconciliation;
+    }
+
+    /**
+     * Recomputes counters from the source tables and applies the difference. Source
+     * aggregates and counters are read in one REPEATABLE READ snapshot, and corrections are
+     * applied as deltas, so increments committed meanwhile are preserved.
+     *
+     * Commission revenue cannot be recomputed exactly (the rate in force at completion is
+     * not stored), so it is only seeded when missing and otherwise reported.
+     */
+    @Scheduled(initialDelayString = "${app.stats.reconcile.initial-delay-ms:15000}",
+            fixedDelayString = "${app.stats.reconcile.interval-ms:3600000}")
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public void reconcile() {
+        Map<String, Long> observed = readAll();
+        Map<String, Long> expected = computeFromSource();
+
+        Set<String> keys = new TreeSet<>(expected.keySet());
+        observed.keySet().stream()
+                .filter(key -> !ORDER_COMMISSION_POINTS.equals(key))
+                .forEach(keys::add);
+
+        Map<String, Object> drift = new TreeMap<>();
+        for (String key : keys) {
+            long want = expected.getOrDefault(key, 0L);
+            long have = observed.getOrDefault(key, 0L);
+            if (ORDER_COMMISSION_POINTS.equals(key) && observed.containsKey(key)) {
+                if (want != have) {
+                    log.info("Commission counter {} differs from estimate at current rate {}", have, want);
+                }
+                continue;
+            }
+            if (want != have) {
+                drift.put(key, Map.of("expected", want, "observed", have));
+                platformStatRepository.addToCounter(key, want - have);
+            }
+        }
+
+        if (!drift.isEmpty()) {
+            log.warn("Platform stats drift corrected for {} counters: {}", drift.size(), drift);
+        }
+        Map<String, Object> report = new HashMap<>();
+        report.put("checkedAt", LocalDateTime.now());
+        report.put("counters", keys.size());
+        report.put("driftCount", drift.size());
+        report.put("drift", drift);
+        lastReconciliation = report;
+    }
+
+    private Map<String, Long> computeFromSource() {
+        Map<String, Long> expected = new HashMap<>();
+        putGroups(expected, USER_ROLE, userRepository.countGroupByRole());
+        putGroups(expected, BIKE_STATUS, bikeRepository.countGroupByStatus());
+        putGroups(expected, ORDER_STATUS, orderRepository.aggregateByStatus());
+        putGroups(expected, INSPECTION_STATUS, inspectionRepository.aggregateByStatus());
+        putGroups(expected, DISPUTE_STATUS, disputeRepository.countGroupByStatus());
+
+        expected.put(ORDER_ESCROW_POINTS, nullToZero(orderRepository.sumAmountByStatusIn(ESCROW_ORDER_STATUSES)));
+        expected.put(INSPECTION_HELD_FEE_POINTS,
+                nullToZero(inspectionRepository.sumFeePointsByStatusIn(ACTIVE_INSPECTION_STATUSES)));
+        expected.put(WALLET_AVAILABLE_POINTS, nullToZero(userWalletRepository.sumTotalAvailablePoints()));
+        expected.put(WALLET_FROZEN_POINTS, nullToZero(userWalletRepository.sumTotalFrozenPoints()));
+        expected.put(WITHDRAWAL_PENDING_COUNT, pointTransactionRepository.countByTypeAndStatus(
+                PointTransaction.TransactionType.WITHDRAW, PointTransaction.TransactionStatus.PENDING));
+        expected.put(WITHDRAWAL_PENDING_POINTS, nullToZero(pointTransactionRepository.sumAmountByTypeAndStatus(
+                PointTransaction.TransactionType.WITHDRAW, PointTransaction.TransactionStatus.PENDING)));
+
+        long completedPoints = nullToZero(orderRepository.sumAmountByStatusIn(List.of(Order.OrderStatus.COMPLETED)));
+        expected.put(ORDER_COMMISSION_POINTS, Math.round(completedPoints * orderRuleConfigService.getCommissionRate()));
+        return expected;
+    }
+
+    private static void putGroups(Map<String, Long> target, String prefix, List<? extends GroupCount> rows) {
+        for (GroupCount row : rows) {
+            if (row.getKey() != null) {
+                target.merge(prefix + row.getKey(), row.getTotal(), Long::sum);
+            }
+        }
+    }
+
+    private static long nullToZero(Long value) {
+        return value != null ? value : 0L;
+    }
+}
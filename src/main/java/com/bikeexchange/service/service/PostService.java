@@ -1,19 +1,17 @@
 package com.bikeexchange.service.service;
 
+import com.bikeexchange.config.RetryOnDeadlock;
 import com.bikeexchange.dto.request.SellerPostCreateRequest;
 import com.bikeexchange.dto.request.SellerPostUpdateRequest;
-import com.bikeexchange.exception.InsufficientBalanceException;
 import com.bikeexchange.exception.ResourceNotFoundException;
 import com.bikeexchange.model.Bike;
 import com.bikeexchange.model.PointTransaction;
 import com.bikeexchange.model.Post;
 import com.bikeexchange.model.User;
-import com.bikeexchange.model.UserWallet;
 import com.bikeexchange.repository.BikeRepository;
 import com.bikeexchange.repository.PointTransactionRepository;
 import com.bikeexchange.repository.PostRepository;
 import com.bikeexchange.repository.UserRepository;
-import com.bikeexchange.repository.UserWalletRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -37,7 +35,7 @@ public class PostService {
     private UserRepository userRepository;
 
     @Autowired
-    private UserWalletRepository walletRepository;
+    private LedgerService ledgerService;
 
     @Autowired
     private PointTransactionRepository pointTxRepo;
@@ -108,6 +106,7 @@ public class PostService {
         return post;
     }
 
+    @RetryOnDeadlock
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public Post createPost(Long sellerId, SellerPostCreateRequest request) {
         User seller = userRepository.findById(sellerId)
@@ -131,15 +130,6 @@ public class PostService {
         Post.ListingType listingType = parseListingType(request.getListingType());
         Long postFee = listingType == Post.ListingType.VERIFIED ? POST_FEE_VERIFIED : POST_FEE_STANDARD;
 
-        UserWallet wallet = walletRepository.findByUserIdForUpdate(sellerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet missing"));
-
-        if (wallet.getAvailablePoints() < postFee) {
-            throw new InsufficientBalanceException("Not enough points to create post. Required: " + postFee);
-        }
-
-        wallet.setAvailablePoints(wallet.getAvailablePoints() - postFee);
-        walletRepository.save(wallet);
 
         bike.setUpdatedAt(LocalDateTime.now());
         bikeRepository.save(bike);
@@ -154,13 +144,17 @@ public class PostService {
         Post saved = postRepository.save(post);
 
         PointTransaction tx = new PointTransaction();
-        tx.setUser(wallet.getUser());
+        tx.setUser(seller);
         tx.setAmount(postFee);
         tx.setType(PointTransaction.TransactionType.SPEND);
         tx.setStatus(PointTransaction.TransactionStatus.SUCCESS);
         tx.setReferenceId("Post fee: " + saved.getId());
         pointTxRepo.save(tx);
 
+        ledgerService.post("post-fee:" + saved.getId(), "FEE", tx.getReferenceId(),
+                "Not enough points to create post. Required: " + postFee,
+                LedgerService.available(sellerId, -postFee), LedgerService.platformRevenue(postFee));
+
         historyService.log("post", saved.getId(), "created", seller.getId(), null);
 
         if (listingType == Post.ListingType.VERIFIED) {
@@ -0,0 +1,20 @@
+package com.bikeexchange.service.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Admits at most one purchase attempt per bike at a time, so a burst of buyers on one
+ * listing does not turn into a queue of transactions each holding a pooled connection.
+ *
+ * A caller that finds the bike busy waits up to {@code app.orders.admission.max-wait-ms}
+ * and is then rejected with {@link com.bikeexchange.exception.PurchaseBusyException} (429).
+ * Selected with {@code app.orders.admission.store}: {@code local} (default, per instance)
+ * or {@code redis} (shared by every instance).
+ */
+public interface PurchaseAdmissionGate {
+
+    /**
+     * Runs {@code purchase} while holding the bike's gate.
+     */
+    <T> T admit(Long bikeId, Supplier<T> purchase);
+}
@@ -0,0 +1,126 @@
+package com.bikeexchange.service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cross-instance relay over Redis pub/sub.
+ *
+ * The sending node delivers straight to sessions it holds, then publishes the message once
+ * on {@link #CHANNEL}, as one envelope listing all recipients. Every other node receives it
+ * and delivers to the recipients' sessions on that node, if any. Delivery is at-most-once: a node that is disconnected from Redis
+ * misses messages, and clients recover them through the message history API (after_id).
+ */
+@Service
+@ConditionalOnProperty(name = "app.chat.relay", havingValue = "redis")
+public class RedisChatMessageRelay implements ChatMessageRelay, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisChatMessageRelay.class);
+
+    public static final String CHANNEL = "bikeexchange:chat:user-messages";
+
+    private static final String METRIC_PREFIX = "chat.relay.";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private SimpUserRegistry userRegistry;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OperationalMetrics metrics;
+
+    @Override
+    public void sendToUsers(List<Long> userIds, String destination, Object payload) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        byte[] json = StompPayloads.toJson(objectMapper, payload);
+        ObjectNode envelope = objectMapper.createObjectNode();
+        envelope.put("origin", nodeId);
+        envelope.put("destination", destination);
+        // Every recipient goes in the envelope: a user connected here may have sessions elsewhere too
+        ArrayNode users = envelope.putArray("users");
+        for (Long userId : userIds) {
+            String user = userId.toString();
+            if (userRegistry.getUser(user) != null) {
+                StompPayloads.sendToUser(messagingTemplate, user, destination, json);
+                metrics.increment(METRIC_PREFIX + "delivered_local");
+            }
+            users.add(user);
+        }
+        envelope.putRawValue("payload", new RawValue(new String(json, StandardCharsets.UTF_8)));
+
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(envelope));
+            metrics.increment(METRIC_PREFIX + "published");
+        } catch (JsonProcessingException | RuntimeException e) {
+            metrics.increment(METRIC_PREFIX + "publish_failed");
+            log.warn("Could not relay chat message to users {}: {}", userIds, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        JsonNode envelope;
+        try {
+            envelope = objectMapper.readTree(new String(message.getBody(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("Ignoring malformed chat relay message: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(envelope.path("origin").asText())) {
+            return;
+        }
+        String destination = envelope.path("destination").asText();
+        byte[] json = null;
+        for (JsonNode user : recipients(envelope)) {
+            // Most nodes hold no session for a given user; skip the broker entirely for them
+            if (userRegistry.getUser(user.asText()) == null) {
+                continue;
+            }
+            if (json == null) {
+                json = StompPayloads.toJson(objectMapper, envelope.get("payload"));
+            }
+            StompPayloads.sendToUser(messagingTemplate, user.asText(), destination, json);
+            metrics.increment(METRIC_PREFIX + "delivered_remote");
+        }
+    }
+
+    // Envelopes from nodes not yet upgraded carry a single "user"
+    private static Iterable<JsonNode> recipients(JsonNode envelope) {
+        JsonNode users = envelope.path("users");
+        if (users.isArray()) {
+            return users;
+        }
+        JsonNode user = envelope.path("user");
+        return user.isMissingNode() ? List.of() : List.of(user);
+    }
+}
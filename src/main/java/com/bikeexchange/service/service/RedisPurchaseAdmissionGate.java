@@ -0,0 +1,102 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.exception.PurchaseBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Cluster-wide gate: one Redis key per bike, taken with SET NX PX and released only by the
+ * holder (compare-and-delete script). The lease expires on its own if the holding instance
+ * dies mid-purchase.
+ *
+ * If Redis cannot be reached the purchase is admitted without a gate: the gate only sheds
+ * load, and the order transaction still decides which buyer gets the bike.
+ */
+@Service
+@ConditionalOnProperty(name = "app.orders.admission.store", havingValue = "redis")
+public class RedisPurchaseAdmissionGate implements PurchaseAdmissionGate {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisPurchaseAdmissionGate.class);
+
+    private static final String KEY_PREFIX = "bikeexchange:purchase-gate:";
+
+    private static final long POLL_MS = 10;
+
+    private static final DefaultRedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private OperationalMetrics metrics;
+
+    @Value("${app.orders.admission.max-wait-ms:200}")
+    private long maxWaitMs;
+
+    @Value("${app.orders.admission.lease-ms:10000}")
+    private long leaseMs;
+
+    @Override
+    public <T> T admit(Long bikeId, Supplier<T> purchase) {
+        String key = KEY_PREFIX + bikeId;
+        String token = UUID.randomUUID().toString();
+        boolean held;
+        try {
+            held = acquire(key, token);
+        } catch (DataAccessException ex) {
+            metrics.increment("orders.admission.unavailable");
+            log.warn("Purchase gate unavailable, admitting bike {} without it: {}", bikeId, ex.getMessage());
+            return purchase.get();
+        }
+        if (!held) {
+            metrics.increment("orders.admission.rejected");
+            throw new PurchaseBusyException("This bike is being purchased by another buyer, please try again");
+        }
+
+        metrics.increment("orders.admission.admitted");
+        try {
+            return purchase.get();
+        } finally {
+            try {
+                redisTemplate.execute(RELEASE, List.of(key), token);
+            } catch (DataAccessException ex) {
+                log.warn("Could not release purchase gate for bike {}; it expires in {} ms", bikeId, leaseMs);
+            }
+        }
+    }
+
+    private boolean acquire(String key, String token) {
+        Duration lease = Duration.ofMillis(leaseMs);
+        if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, token, lease))) {
+            return true;
+        }
+        metrics.increment("orders.admission.waited");
+        long deadline = System.currentTimeMillis() + maxWaitMs;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(POLL_MS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, token, lease))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package com.bikeexchange.service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Sends payloads that are already JSON, so the broker's message converter does not
+ * serialise the same object again for every recipient.
+ */
+final class StompPayloads {
+
+    private StompPayloads() {
+    }
+
+    static byte[] toJson(ObjectMapper objectMapper, Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise STOMP payload", e);
+        }
+    }
+
+    static void sendToUser(SimpMessagingTemplate messagingTemplate, String user, String destination, byte[] json) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(messagingTemplate.getUserDestinationPrefix() + user + destination,
+                MessageBuilder.createMessage(json, accessor.getMessageHeaders()));
+    }
+}
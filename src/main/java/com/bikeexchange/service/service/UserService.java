@@ -1,13 +1,12 @@
 package com.bikeexchange.service.service;
 
-import com.bikeexchange.exception.InsufficientBalanceException;
+import com.bikeexchange.config.RetryOnDeadlock;
 import com.bikeexchange.exception.ResourceNotFoundException;
 import com.bikeexchange.model.PointTransaction;
 import com.bikeexchange.model.User;
-import com.bikeexchange.model.UserWallet;
 import com.bikeexchange.repository.PointTransactionRepository;
 import com.bikeexchange.repository.UserRepository;
-import com.bikeexchange.repository.UserWalletRepository;
+import com.bikeexchange.security.UserPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
@@ -27,7 +26,7 @@ public class UserService {
     private PasswordEncoder passwordEncoder;
 
     @Autowired
-    private UserWalletRepository walletRepository;
+    private LedgerService ledgerService;
 
     @Autowired
     private PointTransactionRepository pointTxRepo;
@@ -35,6 +34,9 @@ public class UserService {
     @Autowired
     private OrderRuleConfigService orderRuleConfigService;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
     public User registerUser(User user) {
         if (userRepository.existsByEmail(user.getEmail())) {
             throw new IllegalArgumentException("Email already exists!");
@@ -87,6 +89,7 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    @RetryOnDeadlock
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public User upgradeToSeller(Long userId, String shopName, String shopDescription) {
         String normalizedShopName = shopName == null ? "" : shopName.trim();
@@ -110,20 +113,7 @@ public class UserService {
         }
         
         // 2. Check wallet and deduct upgrade fee
-        UserWallet wallet = walletRepository.findByUserIdForUpdate(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found for userId: " + userId));
-        
-        if (wallet.getAvailablePoints() < sellerUpgradeFee) {
-            throw new InsufficientBalanceException(
-                "Insufficient balance to upgrade to seller. Required: " + sellerUpgradeFee +
-                    " points, Available: " + wallet.getAvailablePoints() + " points");
-        }
-        
-        // 3. Deduct fee from wallet
-        wallet.setAvailablePoints(wallet.getAvailablePoints() - sellerUpgradeFee);
-        walletRepository.save(wallet);
-        
-        // 4. Create transaction record for fee
+        // 3. Create transaction record for fee
         PointTransaction feeTx = new PointTransaction();
         feeTx.setUser(user);
         feeTx.setAmount(sellerUpgradeFee);
@@ -132,6 +122,13 @@ public class UserService {
         feeTx.setReferenceId("Seller Upgrade Fee");
         feeTx.setRemarks("Fee charged for upgrading from BUYER to SELLER role");
         pointTxRepo.save(feeTx);
+
+        // 4. Deduct fee from wallet
+        if (sellerUpgradeFee > 0) {
+            ledgerService.post("seller-upgrade:" + feeTx.getId(), "FEE", "Seller Upgrade Fee",
+                    "Insufficient balance to upgrade to seller. Required: " + sellerUpgradeFee + " points",
+                    LedgerService.available(userId, -sellerUpgradeFee), LedgerService.platformRevenue(sellerUpgradeFee));
+        }
         
         // 5. Update user role and seller info
         user.setRole(User.UserRole.SELLER);
@@ -139,8 +136,10 @@ public class UserService {
         user.setShopDescription(normalizedShopDescription);
         user.setRating(0.0); // Reset rating to 0.0 for new seller
         user.setUpgradedToSellerAt(LocalDateTime.now());
-        
-        return userRepository.save(user);
+
+        User saved = userRepository.save(user);
+        userPrincipalCache.evict(userId);
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -1,5 +1,6 @@
 package com.bikeexchange.service.service;
 
+import com.bikeexchange.config.RetryOnDeadlock;
 import com.bikeexchange.exception.InsufficientBalanceException;
 import com.bikeexchange.exception.ResourceNotFoundException;
 import com.bikeexchange.model.ListingCombo;
@@ -7,6 +8,7 @@ import com.bikeexchange.model.PointTransaction;
 import com.bikeexchange.model.UserWallet;
 import com.bikeexchange.repository.ListingComboRepository;
 import com.bikeexchange.repository.PointTransactionRepository;
+import com.bikeexchange.repository.UserRepository;
 import com.bikeexchange.repository.UserWalletRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -16,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Service
+@RetryOnDeadlock
 public class WalletService {
 
     @Autowired
@@ -27,6 +30,12 @@ public class WalletService {
     @Autowired
     private ListingComboRepository listingComboRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
     public UserWallet getWallet(Long userId) {
         return walletRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found for userId: " + userId));
@@ -61,22 +70,18 @@ public class WalletService {
         if (amount <= 0)
             throw new IllegalArgumentException("Deposit amount must be > 0");
 
-        // Use Pessimistic locking to avoid race conditions with Escrow / other threads
-        UserWallet wallet = walletRepository.findByUserIdForUpdate(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
-
-        wallet.setAvailablePoints(wallet.getAvailablePoints() + amount);
-        walletRepository.save(wallet);
-
         PointTransaction tx = new PointTransaction();
-        tx.setUser(wallet.getUser());
+        tx.setUser(userRepository.getReferenceById(userId));
         tx.setAmount(amount);
         tx.setType(PointTransaction.TransactionType.DEPOSIT);
         tx.setStatus(PointTransaction.TransactionStatus.SUCCESS);
         tx.setReferenceId(referenceId);
         pointTxRepo.save(tx);
 
-        return wallet;
+        ledgerService.post("deposit:" + tx.getId(), "DEPOSIT", referenceId,
+                LedgerService.external(-amount), LedgerService.available(userId, amount));
+
+        return ledgerService.getWallet(userId);
     }
 
     @Transactional(isolation = Isolation.READ_COMMITTED)
@@ -85,26 +90,19 @@ public class WalletService {
         if (amount <= 0)
             throw new IllegalArgumentException("Withdraw amount must be > 0");
 
-        UserWallet wallet = walletRepository.findByUserIdForUpdate(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
-
-        if (wallet.getAvailablePoints() < amount) {
-            throw new InsufficientBalanceException("Not enough available points");
-        }
-
-        wallet.setAvailablePoints(wallet.getAvailablePoints() - amount);
-        wallet.setFrozenPoints(wallet.getFrozenPoints() + amount); // Freeze until admin approves
-        walletRepository.save(wallet);
-
         PointTransaction tx = new PointTransaction();
-        tx.setUser(wallet.getUser());
+        tx.setUser(userRepository.getReferenceById(userId));
         tx.setAmount(amount);
         tx.setType(PointTransaction.TransactionType.WITHDRAW);
         tx.setStatus(PointTransaction.TransactionStatus.PENDING); // Admin must approve
         tx.setReferenceId(String.format("Withdrawal: %s | %s | %s", bankName, bankAccountName, bankAccountNumber));
         pointTxRepo.save(tx);
 
-        return wallet;
+        // Freeze until admin approves
+        ledgerService.post("withdrawal:" + tx.getId() + ":hold", "WITHDRAW_HOLD", null,
+                LedgerService.available(userId, -amount), LedgerService.frozen(userId, amount));
+
+        return ledgerService.getWallet(userId);
     }
 
     @Transactional(isolation = Isolation.READ_COMMITTED)
@@ -117,15 +115,15 @@ public class WalletService {
             throw new IllegalArgumentException("Invalid transaction for approval");
         }
 
-        UserWallet wallet = walletRepository.findByUserIdForUpdate(tx.getUser().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
+        // Approval and rejection share one key, so only the first of them moves points
+        Long userId = tx.getUser().getId();
+        if (!ledgerService.post("withdrawal:" + transactionId + ":settle", "WITHDRAW_PAYOUT", null,
+                LedgerService.frozen(userId, -tx.getAmount()), LedgerService.external(tx.getAmount()))) {
+            throw new IllegalStateException("Withdrawal was already settled");
+        }
 
         tx.setStatus(PointTransaction.TransactionStatus.SUCCESS);
         pointTxRepo.save(tx);
-
-        wallet.setFrozenPoints(wallet.getFrozenPoints() - tx.getAmount());
-        // Available points were already deducted at request time
-        walletRepository.save(wallet);
     }
 
     @Transactional(isolation = Isolation.READ_COMMITTED)
@@ -138,17 +136,16 @@ public class WalletService {
             throw new IllegalArgumentException("Invalid transaction for rejection");
         }
 
-        UserWallet wallet = walletRepository.findByUserIdForUpdate(tx.getUser().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
+        // Refund the points
+        Long userId = tx.getUser().getId();
+        if (!ledgerService.post("withdrawal:" + transactionId + ":settle", "WITHDRAW_RELEASE", reason,
+                LedgerService.frozen(userId, -tx.getAmount()), LedgerService.available(userId, tx.getAmount()))) {
+            throw new IllegalStateException("Withdrawal was already settled");
+        }
 
         tx.setStatus(PointTransaction.TransactionStatus.FAILED);
         tx.setRemarks(reason);
         pointTxRepo.save(tx);
-
-        // Refund the points
-        wallet.setFrozenPoints(wallet.getFrozenPoints() - tx.getAmount());
-        wallet.setAvailablePoints(wallet.getAvailablePoints() + tx.getAmount());
-        walletRepository.save(wallet);
     }
 
     public List<PointTransaction> getWithdrawals(java.util.List<PointTransaction.TransactionStatus> statuses) {
@@ -184,22 +181,9 @@ public class WalletService {
             throw new IllegalArgumentException("Combo is not currently active");
         }
 
-        UserWallet wallet = walletRepository.findByUserIdForUpdate(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
-
-        if (wallet.getAvailablePoints() < combo.getPointsCost()) {
-            throw new InsufficientBalanceException("Not enough points to buy this combo. Required: " + combo.getPointsCost());
-        }
-
-        // Deduct points
-        wallet.setAvailablePoints(wallet.getAvailablePoints() - combo.getPointsCost());
-        // Add free posts
-        wallet.setRemainingFreePosts(wallet.getRemainingFreePosts() + combo.getPostLimit());
-        walletRepository.save(wallet);
-
         // Audit log
         PointTransaction tx = new PointTransaction();
-        tx.setUser(wallet.getUser());
+        tx.setUser(userRepository.getReferenceById(userId));
         tx.setAmount(combo.getPointsCost());
         tx.setType(PointTransaction.TransactionType.SPEND);
         tx.setStatus(PointTransaction.TransactionStatus.SUCCESS);
@@ -207,7 +191,14 @@ public class WalletService {
         tx.setRemarks("Mua gói combo tin đăng: " + combo.getName());
         pointTxRepo.save(tx);
 
-        return wallet;
+        // Deduct points, then add free posts
+        ledgerService.post("combo:" + tx.getId(), "FEE", "BUY_COMBO_" + comboId,
+                "Not enough points to buy this combo. Required: " + combo.getPointsCost(),
+                LedgerService.available(userId, -combo.getPointsCost()),
+                LedgerService.platformRevenue(combo.getPointsCost()));
+        ledgerService.addFreePosts(userId, combo.getPostLimit());
+
+        return ledgerService.getWallet(userId);
     }
 
     public java.util.List<com.bikeexchange.model.ListingCombo> getActiveCombos() {
@@ -0,0 +1,69 @@
+package com.bikeexchange.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic Cloudinary delivery URLs for the sizes the clients render.
+ *
+ * Variants are derived from the stored {@code secure_url} by inserting a transformation
+ * after {@code /image/upload/}, so they work for rows saved before public ids were stored
+ * and need no Cloudinary call. {@code f_auto,q_auto} lets Cloudinary serve WebP/AVIF at a
+ * quality tuned per image. URLs that are not Cloudinary image uploads are returned as is.
+ */
+public final class ImageVariants {
+
+    private static final Pattern UPLOAD_URL =
+            Pattern.compile("^(https?://res\\.cloudinary\\.com/[^/]+/image/upload/)(.+)$");
+
+    // Optional version segment, the public id, then the file extension
+    private static final Pattern PUBLIC_ID = Pattern.compile("^(?:v\\d+/)?(.+?)(?:\\.[A-Za-z0-9]+)?$");
+
+    public enum Variant {
+        /** Small square-ish previews: inbox rows, admin tables. */
+        THUMBNAIL("c_fill,g_auto,w_160,h_120,f_auto,q_auto"),
+        /** Listing grid cards. */
+        CARD("c_fill,g_auto,w_480,h_360,f_auto,q_auto"),
+        /** Detail page and gallery; only downscaled, never cropped. */
+        FULL("c_limit,w_1600,h_1600,f_auto,q_auto");
+
+        private final String transformation;
+
+        Variant(String transformation) {
+            this.transformation = transformation;
+        }
+
+        public String getTransformation() {
+            return transformation;
+        }
+    }
+
+    private ImageVariants() {
+    }
+
+    public static String url(String originalUrl, Variant variant) {
+        if (originalUrl == null) {
+            return null;
+        }
+        Matcher matcher = UPLOAD_URL.matcher(originalUrl);
+        if (!matcher.matches()) {
+            return originalUrl;
+        }
+        return matcher.group(1) + variant.getTransformation() + "/" + matcher.group(2);
+    }
+
+    /**
+     * Public id of an untransformed Cloudinary upload URL, or null for any other URL.
+     */
+    public static String publicIdOf(String originalUrl) {
+        if (originalUrl == null) {
+            return null;
+        }
+        Matcher matcher = UPLOAD_URL.matcher(originalUrl);
+        if (!matcher.matches()) {
+            return null;
+        }
+        Matcher id = PUBLIC_ID.matcher(matcher.group(2));
+        return id.matches() ? id.group(1) : null;
+    }
+}
@@ -0,0 +1,94 @@
+package com.bikeexchange.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset pagination.
+ *
+ * A cursor is the sort key of the last row of a page, tagged with the ordering it
+ * belongs to, and encoded as URL-safe base64 so clients treat it as a token.
+ * Malformed or foreign cursors are rejected with IllegalArgumentException (HTTP 400).
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String[] values;
+
+    private KeysetCursor(String[] values) {
+        this.values = values;
+    }
+
+    public static String encode(String kind, Object... keys) {
+        StringBuilder sb = new StringBuilder(kind);
+        for (Object key : keys) {
+            sb.append(SEPARATOR).append(key == null ? "" : key.toString());
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode}; returns null for a blank cursor (first page).
+     */
+    public static KeysetCursor decode(String cursor, String expectedKind, int keyCount) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] parts = raw.split("\\" + SEPARATOR, -1);
+        if (parts.length != keyCount + 1 || !parts[0].equals(expectedKind)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] keys = new String[keyCount];
+        System.arraycopy(parts, 1, keys, 0, keyCount);
+        return new KeysetCursor(keys);
+    }
+
+    /**
+     * The ordering a cursor belongs to, or null for a blank or unreadable cursor.
+     */
+    public static String kindOf(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int end = raw.indexOf(SEPARATOR);
+            return end < 0 ? raw : raw.substring(0, end);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public Long getLong(int index) {
+        try {
+            return Long.valueOf(values[index]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public Double getDouble(int index) {
+        try {
+            return Double.valueOf(values[index]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public LocalDateTime getDateTime(int index) {
+        try {
+            return LocalDateTime.parse(values[index]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
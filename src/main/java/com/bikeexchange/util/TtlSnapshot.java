@@ -0,0 +1,38 @@
+package com.bikeexchange.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds a computed value for a short time. Concurrent callers that find the value expired
+ * wait for a single recomputation instead of each running the underlying queries.
+ */
+public final class TtlSnapshot<T> {
+
+    private final long ttlMillis;
+    private volatile T value;
+    private volatile long expiresAt;
+
+    public TtlSnapshot(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public T get(Supplier<T> loader) {
+        T current = value;
+        if (current != null && System.currentTimeMillis() < expiresAt) {
+            return current;
+        }
+        synchronized (this) {
+            if (value != null && System.currentTimeMillis() < expiresAt) {
+                return value;
+            }
+            T loaded = loader.get();
+            value = loaded;
+            expiresAt = System.currentTimeMillis() + ttlMillis;
+            return loaded;
+        }
+    }
+
+    public void invalidate() {
+        expiresAt = 0;
+    }
+}
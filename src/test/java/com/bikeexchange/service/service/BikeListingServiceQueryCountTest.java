@@ -0,0 +1,105 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.dto.response.BikeResponse;
+import com.bikeexchange.model.Bike;
+import com.bikeexchange.model.Category;
+import com.bikeexchange.model.User;
+import com.bikeexchange.repository.BikeRepository;
+import com.bikeexchange.support.TestData;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A listing page costs the same number of statements whatever its size: one for the keys,
+ * then a fixed number to load bikes with brand, media and categories.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BikeListingServiceQueryCountTest {
+
+    @Autowired
+    private BikeListingService bikeListingService;
+
+    @Autowired
+    private BikeRepository bikeRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private User seller;
+    private final List<Long> bikeIds = new ArrayList<>();
+
+    @BeforeEach
+    void createListings() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        seller = testData.user(User.UserRole.SELLER, 0);
+        Category road = testData.category();
+        Category gravel = testData.category();
+        for (int i = 0; i < 12; i++) {
+            // A different brand per bike, so brands cannot come from the persistence context
+            Bike bike = testData.bike(seller, testData.brand(), 1_000L + i, Set.of(road, gravel), 3);
+            bikeIds.add(bike.getId());
+        }
+    }
+
+    @Test
+    void loadResponsesUsesTheSameStatementsForAnyPageSize() {
+        long small = statements(() -> assertEquals(2, withRelations(bikeListingService.loadResponses(bikeIds.subList(0, 2)))));
+        long large = statements(() -> assertEquals(12, withRelations(bikeListingService.loadResponses(bikeIds))));
+
+        // Bikes with brand, then one batch each for media and categories
+        assertEquals(3, small);
+        assertEquals(small, large);
+    }
+
+    @Test
+    void findListingKeysIsOneStatementForAnyPageSize() {
+        Specification<Bike> bySeller = (root, query, cb) -> cb.equal(root.get("seller").get("id"), seller.getId());
+
+        long small = statements(() -> transactionTemplate.executeWithoutResult(status ->
+                assertEquals(3, bikeRepository.findListingKeys(bySeller, false, null, null, 3).size())));
+        long large = statements(() -> transactionTemplate.executeWithoutResult(status ->
+                assertEquals(12, bikeRepository.findListingKeys(bySeller, true, null, null, 50).size())));
+
+        assertEquals(1, small);
+        assertEquals(small, large);
+    }
+
+    private long statements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Mapping happened inside loadResponses, so brand, media and categories are plain values here
+    private static int withRelations(List<BikeResponse> responses) {
+        for (BikeResponse response : responses) {
+            assertEquals(3, response.getMedia().size());
+            assertEquals(2, response.getCategories().size());
+        }
+        return responses.size();
+    }
+}
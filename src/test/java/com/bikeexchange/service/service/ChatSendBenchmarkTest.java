@@ -0,0 +1,168 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.dto.request.ConversationCreateRequest;
+import com.bikeexchange.dto.request.MessageSendRequest;
+import com.bikeexchange.model.Bike;
+import com.bikeexchange.model.Conversation;
+import com.bikeexchange.model.Message;
+import com.bikeexchange.model.User;
+import com.bikeexchange.repository.ConversationRepository;
+import com.bikeexchange.repository.MessageRepository;
+import com.bikeexchange.repository.UserRepository;
+import com.bikeexchange.support.TestData;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Chat sends per second through the original send path and the current one, on one
+ * conversation, each including the STOMP push to the receiver and the echo to the sender.
+ * The original path loaded the sender and the conversation, saved the conversation to bump
+ * its recency, saved the message with the loaded entities and converted the JPA entity once
+ * per push; the current one is {@link ChatService#sendMessage(Long, MessageSendRequest)} plus
+ * {@link ChatMessageRelay#sendToUsers} with one serialisation of the compact response.
+ *
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class ChatSendBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatSendBenchmarkTest.class);
+
+    private static final int WARMUP = 200;
+    private static final int SENDS = 1000;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ChatMessageRelay chatMessageRelay;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void sendsPerSecondBeforeAndAfter() {
+        User seller = testData.user(User.UserRole.SELLER, 0);
+        User buyer = testData.user(User.UserRole.BUYER, 0);
+        Bike bike = testData.bike(seller, testData.brand(), 1_000L);
+        ConversationCreateRequest create = new ConversationCreateRequest();
+        create.setBikeId(bike.getId());
+        Long conversationId = chatService.createConversation(buyer.getId(), create).getId();
+
+        MessageSendRequest request = new MessageSendRequest();
+        request.setConversationId(conversationId);
+        request.setContent("Is the price still negotiable?");
+
+        for (int i = 0; i < WARMUP; i++) {
+            sendBefore(buyer.getId(), seller.getId(), request);
+            sendAfter(buyer.getId(), request);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        sendBefore(buyer.getId(), seller.getId(), request);
+        long statementsBefore = statistics.getPrepareStatementCount();
+        statistics.clear();
+        sendAfter(buyer.getId(), request);
+        long statementsAfter = statistics.getPrepareStatementCount();
+
+        double before = measure(() -> sendBefore(buyer.getId(), seller.getId(), request));
+        double after = measure(() -> sendAfter(buyer.getId(), request));
+        log.info("Chat send: before {} sends/s ({} statements), after {} sends/s ({} statements)",
+                String.format("%.0f", before), statementsBefore, String.format("%.0f", after), statementsAfter);
+
+        assertTrue(statementsAfter < statementsBefore);
+
+        int total = 2 * (WARMUP + SENDS + 1);
+        Integer stored = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM messages WHERE conversation_id = ?", Integer.class, conversationId);
+        assertEquals(total, stored);
+        // Only the current path keeps the unread counter
+        Conversation conversation = conversationRepository.findById(conversationId).orElseThrow();
+        assertEquals(WARMUP + SENDS + 1, conversation.getSellerUnreadCount());
+        Long lastId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM messages WHERE conversation_id = ?", Long.class, conversationId);
+        assertEquals(lastId, conversation.getLastMessageId());
+    }
+
+    private double measure(Runnable send) {
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < SENDS; i++) {
+            send.run();
+        }
+        return SENDS / ((System.nanoTime() - startedAt) / 1e9);
+    }
+
+    /**
+     * ChatService.sendMessage and the STOMP push of the baseline code. Both run in one
+     * transaction, standing in for open-session-in-view, which is what let the message
+     * converter render the entity's lazy associations.
+     */
+    private void sendBefore(Long senderId, Long receiverId, MessageSendRequest request) {
+        transactionTemplate.executeWithoutResult(status -> {
+            User sender = userRepository.findById(senderId).orElseThrow();
+            Conversation conversation = conversationRepository.findById(request.getConversationId()).orElseThrow();
+
+            conversation.setUpdatedAt(LocalDateTime.now());
+            conversation = conversationRepository.save(conversation);
+
+            Message message = new Message();
+            message.setConversation(conversation);
+            message.setSender(sender);
+            message.setContent(request.getContent());
+            message.setIsRead(false);
+            message.setCreatedAt(LocalDateTime.now());
+            Message saved = messageRepository.save(message);
+
+            messagingTemplate.convertAndSendToUser(receiverId.toString(), "/queue/messages", saved);
+            messagingTemplate.convertAndSendToUser(senderId.toString(), "/queue/messages", saved);
+        });
+    }
+
+    private void sendAfter(Long senderId, MessageSendRequest request) {
+        ChatService.Delivery delivery = chatService.sendMessage(senderId, request);
+        chatMessageRelay.sendToUsers(List.of(delivery.recipientId(), senderId), "/queue/messages",
+                delivery.message());
+    }
+}
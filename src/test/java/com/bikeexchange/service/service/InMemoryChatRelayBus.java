@@ -0,0 +1,161 @@
+package com.bikeexchange.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpSubscriptionMatcher;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stands in for Redis pub/sub between several in-process {@link RedisChatMessageRelay} nodes.
+ * Each node receives published envelopes on its own thread, like a listener container, and
+ * counts what its broker was asked to deliver per user destination.
+ */
+class InMemoryChatRelayBus implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Node> nodes = new CopyOnWriteArrayList<>();
+    private final AtomicLong published = new AtomicLong();
+
+    /**
+     * A node whose broker holds sessions for {@code users}.
+     */
+    Node node(String... users) {
+        Node node = new Node(Set.of(users));
+        nodes.add(node);
+        return node;
+    }
+
+    long published() {
+        return published.get();
+    }
+
+    private void publish(String channel, String body) {
+        published.incrementAndGet();
+        DefaultMessage message = new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+        for (Node node : nodes) {
+            node.listener.execute(() -> node.relay.onMessage(message, null));
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        for (Node node : nodes) {
+            node.listener.shutdown();
+            node.listener.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    class Node {
+
+        final RedisChatMessageRelay relay = new RedisChatMessageRelay();
+        final OperationalMetrics metrics = new OperationalMetrics();
+        private final Map<String, AtomicLong> delivered = new ConcurrentHashMap<>();
+        private final ExecutorService listener = Executors.newSingleThreadExecutor();
+
+        private Node(Set<String> users) {
+            MessageChannel broker = new MessageChannel() {
+                @Override
+                public boolean send(Message<?> message, long timeout) {
+                    String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                    delivered.computeIfAbsent(destination, key -> new AtomicLong()).incrementAndGet();
+                    return true;
+                }
+
+                @Override
+                public boolean send(Message<?> message) {
+                    return send(message, INDEFINITE_TIMEOUT);
+                }
+            };
+            StringRedisTemplate redis = new StringRedisTemplate() {
+                @Override
+                public Long convertAndSend(String channel, Object message) {
+                    publish(channel, (String) message);
+                    return (long) nodes.size();
+                }
+            };
+            ReflectionTestUtils.setField(relay, "messagingTemplate", new SimpMessagingTemplate(broker));
+            ReflectionTestUtils.setField(relay, "userRegistry", new FixedUserRegistry(users));
+            ReflectionTestUtils.setField(relay, "redisTemplate", redis);
+            ReflectionTestUtils.setField(relay, "objectMapper", objectMapper);
+            ReflectionTestUtils.setField(relay, "metrics", metrics);
+        }
+
+        long delivered(String user, String destination) {
+            AtomicLong count = delivered.get("/user/" + user + destination);
+            return count == null ? 0 : count.get();
+        }
+    }
+
+    private record FixedUserRegistry(Set<String> users) implements SimpUserRegistry {
+
+        @Override
+        public SimpUser getUser(String userName) {
+            return users.contains(userName) ? new ConnectedUser(userName) : null;
+        }
+
+        @Override
+        public Set<SimpUser> getUsers() {
+            return Set.of();
+        }
+
+        @Override
+        public int getUserCount() {
+            return users.size();
+        }
+
+        @Override
+        public Set<SimpSubscription> findSubscriptions(SimpSubscriptionMatcher matcher) {
+            return Set.of();
+        }
+    }
+
+    private record ConnectedUser(String name) implements SimpUser {
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public boolean hasSessions() {
+            return true;
+        }
+
+        @Override
+        public SimpSession getSession(String sessionId) {
+            return null;
+        }
+
+        @Override
+        public Set<SimpSession> getSessions() {
+            return Set.of();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.model.User;
+import com.bikeexchange.model.UserWallet;
+import com.bikeexchange.repository.UserWalletRepository;
+import com.bikeexchange.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent postings per second into one hot account: many buyers pay the same seller at
+ * once, each payment its own transaction. Checks that no posting is lost and the ledger
+ * balances, and logs the throughput.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LedgerHotAccountBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerHotAccountBenchmarkTest.class);
+
+    private static final int THREADS = 8;
+    private static final int POSTINGS_PER_THREAD = 100;
+    private static final long AMOUNT = 10L;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private UserWalletRepository userWalletRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger identityRetries = new AtomicInteger();
+
+    @Test
+    void concurrentPostingsToOneSellerWallet() throws Exception {
+        User seller = testData.user(User.UserRole.SELLER, 0);
+        List<User> buyers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            buyers.add(testData.user(User.UserRole.BUYER, AMOUNT * POSTINGS_PER_THREAD));
+        }
+        String keyPrefix = "bench:" + seller.getId() + ":";
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (User buyer : buyers) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < POSTINGS_PER_THREAD; i++) {
+                        String key = keyPrefix + buyer.getId() + ":" + i;
+                        assertTrue(postRetryingIdentityRace(key, buyer, seller), key);
+                    }
+                    return null;
+                }));
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(120, TimeUnit.SECONDS);
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            int postings = THREADS * POSTINGS_PER_THREAD;
+            log.info("Hot account: {} postings from {} threads in {} s = {} postings/s ({} H2 identity retries)",
+                    postings, THREADS, String.format("%.2f", seconds), String.format("%.0f", postings / seconds),
+                    identityRetries.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        UserWallet sellerWallet = userWalletRepository.findById(seller.getId()).orElseThrow();
+        assertEquals(AMOUNT * THREADS * POSTINGS_PER_THREAD, sellerWallet.getAvailablePoints());
+        for (User buyer : buyers) {
+            assertEquals(0L, userWalletRepository.findById(buyer.getId()).orElseThrow().getAvailablePoints());
+        }
+
+        Integer entries = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ledger_entries WHERE entry_key LIKE ?", Integer.class, keyPrefix + "%");
+        assertEquals(THREADS * POSTINGS_PER_THREAD, entries);
+        Long unbalanced = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(p.amount), 0) FROM ledger_postings p JOIN ledger_entries e ON e.id = p.entry_id " +
+                        "WHERE e.entry_key LIKE ?", Long.class, keyPrefix + "%");
+        assertEquals(0L, unbalanced);
+
+        // The seller's running balance after the last posting equals the wallet
+        Long lastBalance = jdbcTemplate.queryForObject(
+                "SELECT balance_after FROM ledger_postings WHERE user_id = ? AND account LIKE '%:available' " +
+                        "ORDER BY id DESC LIMIT 1", Long.class, seller.getId());
+        assertEquals(sellerWallet.getAvailablePoints(), lastBalance);
+    }
+
+    /**
+     * H2 in MySQL mode can hand the same IDENTITY value to two concurrent inserts (MySQL's
+     * AUTO_INCREMENT does not). LedgerService rethrows that primary key violation because the
+     * entry key is not taken; the whole posting rolled back, so it is simply run again.
+     */
+    private boolean postRetryingIdentityRace(String key, User buyer, User seller) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return Boolean.TRUE.equals(transactionTemplate.execute(status -> ledgerService.post(key, "BENCH", null,
+                        LedgerService.available(buyer.getId(), -AMOUNT),
+                        LedgerService.available(seller.getId(), AMOUNT))));
+            } catch (DuplicateKeyException e) {
+                if (attempt >= 5) {
+                    throw e;
+                }
+                identityRetries.incrementAndGet();
+            }
+        }
+    }
+}
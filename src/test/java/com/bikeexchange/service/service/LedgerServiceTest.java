@@ -0,0 +1,77 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.model.User;
+import com.bikeexchange.repository.UserWalletRepository;
+import com.bikeexchange.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Idempotency of ledger postings: only an existing entry key means "already posted"; any
+ * other failure to write the entry fails the posting and changes no balance.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LedgerServiceTest {
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private UserWalletRepository userWalletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void secondPostingWithSameKeyChangesNothing() {
+        User buyer = testData.user(User.UserRole.BUYER, 100);
+        User seller = testData.user(User.UserRole.SELLER, 0);
+        String key = "test:" + buyer.getId() + ":pay";
+
+        assertTrue(pay(key, buyer, seller, 40));
+        assertFalse(pay(key, buyer, seller, 40));
+
+        assertEquals(60L, userWalletRepository.findById(buyer.getId()).orElseThrow().getAvailablePoints());
+        assertEquals(40L, userWalletRepository.findById(seller.getId()).orElseThrow().getAvailablePoints());
+        assertEquals(1, countEntries(key));
+    }
+
+    @Test
+    void entryThatCannotBeStoredFailsInsteadOfReportingAlreadyPosted() {
+        User buyer = testData.user(User.UserRole.BUYER, 100);
+        User seller = testData.user(User.UserRole.SELLER, 0);
+        // Longer than the entry_key column
+        String key = "test:" + buyer.getId() + ":" + "x".repeat(200);
+
+        DataAccessException failure = assertThrows(DataAccessException.class, () -> pay(key, buyer, seller, 40));
+        assertFalse(failure instanceof DuplicateKeyException);
+
+        assertEquals(100L, userWalletRepository.findById(buyer.getId()).orElseThrow().getAvailablePoints());
+        assertEquals(0L, userWalletRepository.findById(seller.getId()).orElseThrow().getAvailablePoints());
+        assertEquals(0, countEntries(key));
+    }
+
+    private boolean pay(String key, User buyer, User seller, long amount) {
+        return ledgerService.post(key, "TEST", null,
+                LedgerService.available(buyer.getId(), -amount),
+                LedgerService.available(seller.getId(), amount));
+    }
+
+    private int countEntries(String key) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_entries WHERE entry_key = ?", Integer.class, key);
+    }
+}
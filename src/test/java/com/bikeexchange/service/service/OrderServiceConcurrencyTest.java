@@ -0,0 +1,122 @@
+package com.bikeexchange.service.service;
+
+import com.bikeexchange.exception.ListingNotAvailableException;
+import com.bikeexchange.model.Bike;
+import com.bikeexchange.model.Order;
+import com.bikeexchange.model.User;
+import com.bikeexchange.model.UserWallet;
+import com.bikeexchange.repository.BikeRepository;
+import com.bikeexchange.repository.OrderRepository;
+import com.bikeexchange.repository.UserWalletRepository;
+import com.bikeexchange.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Many buyers try to buy the same bike at once: exactly one order is created, every other
+ * buyer gets ListingNotAvailableException, and no loser's wallet or the ledger is touched.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderServiceConcurrencyTest {
+
+    private static final int BUYERS = 16;
+    private static final long PRICE = 1_000L;
+    private static final long BALANCE = 5_000L;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BikeRepository bikeRepository;
+
+    @Autowired
+    private UserWalletRepository userWalletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelBuyersOfOneBikeCreateExactlyOneOrder() throws Exception {
+        User seller = testData.user(User.UserRole.SELLER, 0);
+        Bike bike = testData.bike(seller, testData.brand(), PRICE);
+        List<User> buyers = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            buyers.add(testData.user(User.UserRole.BUYER, BALANCE));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> attempts = new ArrayList<>();
+        try {
+            for (User buyer : buyers) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    return orderService.createOrder(buyer.getId(), bike.getId(), null);
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            int rejected = 0;
+            for (Future<Order> attempt : attempts) {
+                try {
+                    attempt.get(30, TimeUnit.SECONDS);
+                    created++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(ListingNotAvailableException.class, e.getCause());
+                    rejected++;
+                }
+            }
+            assertEquals(1, created);
+            assertEquals(BUYERS - 1, rejected);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Order> orders = orderRepository.findAll().stream()
+                .filter(order -> order.getBike().getId().equals(bike.getId()))
+                .toList();
+        assertEquals(1, orders.size());
+        assertEquals(Bike.BikeStatus.RESERVED, bikeRepository.findById(bike.getId()).orElseThrow().getStatus());
+
+        Long winnerId = orders.get(0).getBuyer().getId();
+        for (User buyer : buyers) {
+            UserWallet wallet = userWalletRepository.findById(buyer.getId()).orElseThrow();
+            boolean winner = buyer.getId().equals(winnerId);
+            assertEquals(winner ? BALANCE - PRICE : BALANCE, wallet.getAvailablePoints());
+            assertEquals(winner ? PRICE : 0L, wallet.getFrozenPoints());
+        }
+
+        Integer escrowEntries = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ledger_entries WHERE entry_type = 'ESCROW_HOLD' AND reference_id = ?",
+                Integer.class, "Bike: " + bike.getId());
+        assertEquals(1, escrowEntries);
+        Integer holds = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM point_transactions_new WHERE type = 'ESCROW_HOLD' AND user_id IN (" +
+                        String.join(",", buyers.stream().map(b -> b.getId().toString()).toList()) + ")",
+                Integer.class);
+        assertEquals(1, holds);
+    }
+}
@@ -0,0 +1,52 @@
+package com.bikeexchange.service.service;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two relay nodes in one JVM over {@link InMemoryChatRelayBus}: the sender's node holds one
+ * recipient and the other node holds the second. Logs messages per second delivered across
+ * both nodes and checks that each message is published once, whatever the recipient count.
+ */
+class RedisChatMessageRelayBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisChatMessageRelayBenchmarkTest.class);
+
+    private static final int MESSAGES = 20_000;
+    private static final String DESTINATION = "/queue/messages";
+
+    @Test
+    void twoNodeThroughput() throws Exception {
+        try (InMemoryChatRelayBus bus = new InMemoryChatRelayBus()) {
+            InMemoryChatRelayBus.Node sender = bus.node("1");
+            InMemoryChatRelayBus.Node receiver = bus.node("2");
+            Map<String, Object> payload = Map.of("id", 1L, "conversationId", 7L, "content", "Is the bike still available?");
+
+            long startedAt = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                sender.relay.sendToUsers(List.of(1L, 2L), DESTINATION, payload);
+            }
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (receiver.delivered("2", DESTINATION) < MESSAGES && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            log.info("Chat relay: {} messages to 2 users on 2 nodes in {} s = {} messages/s",
+                    MESSAGES, String.format("%.2f", seconds), String.format("%.0f", MESSAGES / seconds));
+
+            assertEquals(MESSAGES, sender.delivered("1", DESTINATION));
+            assertEquals(MESSAGES, receiver.delivered("2", DESTINATION));
+            assertEquals(0, sender.delivered("2", DESTINATION));
+            assertEquals(0, receiver.delivered("1", DESTINATION));
+            // One envelope per message, not one per recipient
+            assertEquals(MESSAGES, bus.published());
+            assertEquals(MESSAGES, receiver.metrics.snapshot().get("chat.relay.delivered_remote"));
+        }
+    }
+}
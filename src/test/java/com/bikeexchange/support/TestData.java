@@ -0,0 +1,108 @@
+package com.bikeexchange.support;
+
+import com.bikeexchange.model.Bike;
+import com.bikeexchange.model.BikeMedia;
+import com.bikeexchange.model.Brand;
+import com.bikeexchange.model.Category;
+import com.bikeexchange.model.User;
+import com.bikeexchange.model.UserWallet;
+import com.bikeexchange.repository.BikeRepository;
+import com.bikeexchange.repository.BrandRepository;
+import com.bikeexchange.repository.CategoryRepository;
+import com.bikeexchange.repository.UserRepository;
+import com.bikeexchange.repository.UserWalletRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Creates committed users, wallets, brands and bikes for integration tests. Every call uses
+ * fresh unique names, so tests sharing one application context do not see each other's rows.
+ */
+@Component
+public class TestData {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserWalletRepository userWalletRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BikeRepository bikeRepository;
+
+    @Transactional
+    public User user(User.UserRole role, long availablePoints) {
+        String suffix = UUID.randomUUID().toString();
+        User user = new User();
+        user.setEmail(role.name().toLowerCase() + "-" + suffix + "@test.local");
+        user.setFullName("Test " + role.name().toLowerCase());
+        user.setPhone("0900000000");
+        user.setAddress("1 Test Street");
+        user.setPassword("password");
+        user.setRole(role);
+        user.setStatus("ACTIVE");
+        user = userRepository.save(user);
+
+        UserWallet wallet = new UserWallet();
+        wallet.setUser(user);
+        wallet.setAvailablePoints(availablePoints);
+        wallet.setFrozenPoints(0L);
+        userWalletRepository.save(wallet);
+        return user;
+    }
+
+    public Brand brand() {
+        Brand brand = new Brand();
+        brand.setName("Brand " + UUID.randomUUID());
+        return brandRepository.save(brand);
+    }
+
+    public Category category() {
+        Category category = new Category();
+        category.setName("Category " + UUID.randomUUID());
+        return categoryRepository.save(category);
+    }
+
+    public Bike bike(User seller, Brand brand, long pricePoints) {
+        return bike(seller, brand, pricePoints, Set.of(), 0);
+    }
+
+    /**
+     * A listed bike with the given categories and {@code images} image media rows.
+     */
+    public Bike bike(User seller, Brand brand, long pricePoints, Set<Category> categories, int images) {
+        Bike bike = new Bike();
+        bike.setSeller(seller);
+        bike.setBrand(brand);
+        bike.setTitle("Road bike " + UUID.randomUUID());
+        bike.setModel("Model X");
+        bike.setYear(2022);
+        bike.setPricePoints(pricePoints);
+        bike.setMileage(0);
+        bike.setCondition("USED");
+        bike.setBikeType("ROAD");
+        bike.setLocation(seller.getAddress());
+        bike.setStatus(Bike.BikeStatus.ACTIVE);
+        bike.setCategories(new HashSet<>(categories));
+        for (int i = 0; i < images; i++) {
+            BikeMedia media = new BikeMedia();
+            media.setBike(bike);
+            media.setUrl("https://res.cloudinary.com/demo/image/upload/bikes/" + UUID.randomUUID() + ".jpg");
+            media.setType(BikeMedia.MediaType.IMAGE);
+            media.setSortOrder(i);
+            bike.getMedia().add(media);
+        }
+        return bikeRepository.save(bike);
+    }
+}